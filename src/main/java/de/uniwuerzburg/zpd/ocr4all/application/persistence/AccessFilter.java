@@ -0,0 +1,203 @@
+/**
+ * File:     AccessFilter.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.Project;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.repository.Container;
+
+/**
+ * Defines batch access filters for project and container repositories. Only
+ * the security section of the first record of every repository is parsed and
+ * the repositories are read in parallel by a bounded number of threads.
+ *
+ * <p>
+ * Projects are visible if the read right is granted to the user. Containers are
+ * visible if at least the read right is granted to the user. Repositories
+ * without security section grant no rights.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class AccessFilter {
+	/**
+	 * The JSON object mapper.
+	 */
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	{
+		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	}
+
+	/**
+	 * The maximal number of threads to read the repositories.
+	 */
+	private final int threads;
+
+	/**
+	 * Creates a batch access filter with as many threads as processors are
+	 * available.
+	 *
+	 * @since 1.8
+	 */
+	public AccessFilter() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a batch access filter.
+	 *
+	 * @param threads The maximal number of threads to read the repositories. If
+	 *                less than 1, one thread is used.
+	 * @since 1.8
+	 */
+	public AccessFilter(int threads) {
+		super();
+
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Returns the repositories that are visible to the user. The repositories are
+	 * evaluated in parallel and returned in the given order.
+	 *
+	 * @param repositories The project and container repositories.
+	 * @param user         The user.
+	 * @param groups       The user groups.
+	 * @param message      The functional interfaces to account for warning
+	 *                     messages. If null, ignore warning messages.
+	 * @return The visible repositories.
+	 * @throws InterruptedException Throws if the current thread was interrupted
+	 *                              while waiting.
+	 * @since 1.8
+	 */
+	public List<Path> getVisible(List<Path> repositories, String user, Collection<String> groups,
+			PersistenceManager.Message message) throws InterruptedException {
+		List<Path> visible = new ArrayList<>();
+		if (repositories == null || repositories.isEmpty())
+			return visible;
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, repositories.size()));
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (Path repository : repositories)
+				futures.add(executor.submit(() -> isVisible(repository, user, groups)));
+
+			for (int i = 0; i < futures.size(); i++)
+				try {
+					if (futures.get(i).get())
+						visible.add(repositories.get(i));
+				} catch (ExecutionException e) {
+					if (message != null)
+						message.warn("could not evaluate the access to repository '" + repositories.get(i) + "' - "
+								+ e.getCause().getMessage() + ".");
+				}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return visible;
+	}
+
+	/**
+	 * Returns true if the repository is visible to the user.
+	 *
+	 * @param repository The project or container repository.
+	 * @param user       The user.
+	 * @param groups     The user groups.
+	 * @return True if the repository is visible to the user.
+	 * @throws IOException Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public boolean isVisible(Path repository, String user, Collection<String> groups) throws IOException {
+		if (repository == null || !Files.exists(repository))
+			return false;
+
+		try (BufferedReader reader = Files.newBufferedReader(repository)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+
+				// Ignore empty lines and comments, this means, lines starting with #
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				String[] split = line.split("\t", 2);
+				if (split.length != 2)
+					return false;
+
+				if (Type.project_v1.name().equals(split[0])) {
+					Project.Security security = getSecurity(split[1], Project.Security.class);
+
+					return security != null && security.can(user, groups, Project.Security.Right.read);
+				} else if (Type.repository_container_v1.name().equals(split[0])) {
+					Container.Security security = getSecurity(split[1], Container.Security.class);
+					if (security == null)
+						return false;
+
+					Container.Security.Right right = security.getEffectiveRight(user, groups);
+
+					return right != null && right.isReadFulfilled();
+				} else
+					return false;
+			}
+		} catch (IOException e) {
+			throw new IOException(
+					"AccessFilter: could not read repository '" + repository + "' - " + e.getMessage() + ".");
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the security section of the JSON record. The other fields are
+	 * skipped without binding them.
+	 *
+	 * @param <T>   The security type.
+	 * @param json  The JSON record.
+	 * @param clazz The security class.
+	 * @return The security. Null if not available.
+	 * @throws IOException Throws if the JSON can not be parsed.
+	 * @since 1.8
+	 */
+	private <T> T getSecurity(String json, Class<T> clazz) throws IOException {
+		try (JsonParser parser = objectMapper.createParser(json)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT)
+				return null;
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				parser.nextToken();
+
+				if ("security".equals(field))
+					return parser.currentToken() == JsonToken.VALUE_NULL ? null : objectMapper.readValue(parser, clazz);
+				else
+					parser.skipChildren();
+			}
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,406 @@
+/**
+ * File:     BulkLoader.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.ArgumentStore;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.util.StringInterner;
+
+/**
+ * Defines bulk loaders for repositories. The repositories are read
+ * concurrently, such that the latency of loading several repositories from
+ * slow storage approaches the latency of a single one. The results are
+ * combined with per repository diagnostics.
+ *
+ * <p>
+ * The loader can use a caller supplied executor service, for instance a
+ * virtual thread per task executor if the runtime supports it. Otherwise, a
+ * bounded thread pool is created for every load.
+ * </p>
+ *
+ * <p>
+ * The repositories are read with the argument store and string interner of a
+ * caller supplied persistence manager, such that referenced arguments are
+ * resolved and the values are canonicalized as if the caller read the
+ * repositories itself.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class BulkLoader {
+	/**
+	 * The default maximal number of threads if no executor service is supplied.
+	 */
+	public static final int defaultThreads = 16;
+
+	/**
+	 * The executor service to read the repositories. Null if a thread pool is
+	 * created for every load.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The argument store to resolve the referenced arguments. Null if the
+	 * references are not resolved.
+	 */
+	private final ArgumentStore argumentStore;
+
+	/**
+	 * The interner to canonicalize the low-cardinality values. Null if the
+	 * values are not canonicalized.
+	 */
+	private final StringInterner interner;
+
+	/**
+	 * Creates a bulk loader that creates a thread pool for every load.
+	 *
+	 * @since 1.8
+	 */
+	public BulkLoader() {
+		this(null);
+	}
+
+	/**
+	 * Creates a bulk loader.
+	 *
+	 * @param executor The executor service to read the repositories. It is not
+	 *                 shut down by the loader. If null, a thread pool is created
+	 *                 for every load.
+	 * @since 1.8
+	 */
+	public BulkLoader(ExecutorService executor) {
+		this(executor, null);
+	}
+
+	/**
+	 * Creates a bulk loader.
+	 *
+	 * @param executor      The executor service to read the repositories. It is
+	 *                      not shut down by the loader. If null, a thread pool is
+	 *                      created for every load.
+	 * @param configuration The persistence manager whose argument store and
+	 *                      string interner are used to read the repositories.
+	 *                      If null, the argument references are not resolved
+	 *                      and the values are not canonicalized.
+	 * @since 1.8
+	 */
+	public BulkLoader(ExecutorService executor, PersistenceManager configuration) {
+		super();
+
+		this.executor = executor;
+
+		argumentStore = configuration == null ? null : configuration.getArgumentStore();
+		interner = configuration == null ? null : configuration.getInterner();
+	}
+
+	/**
+	 * Loads the repositories concurrently.
+	 *
+	 * @param repositories The repositories with their expected persistence types.
+	 * @return The loaded repositories in the order of the given map.
+	 * @throws InterruptedException Throws if the current thread was interrupted
+	 *                              while waiting.
+	 * @since 1.8
+	 */
+	public Result load(Map<Path, ? extends Collection<Type>> repositories) throws InterruptedException {
+		Map<Path, Repository> loaded = new LinkedHashMap<>();
+		if (repositories == null || repositories.isEmpty())
+			return new Result(loaded, 0);
+
+		long start = System.nanoTime();
+
+		ExecutorService executor = this.executor == null
+				? Executors.newFixedThreadPool(Math.min(defaultThreads, repositories.size()))
+				: this.executor;
+		try {
+			Map<Path, Future<Repository>> futures = new LinkedHashMap<>();
+			for (Map.Entry<Path, ? extends Collection<Type>> entry : repositories.entrySet())
+				futures.put(entry.getKey(), executor.submit(() -> load(entry.getKey(), entry.getValue())));
+
+			for (Map.Entry<Path, Future<Repository>> entry : futures.entrySet())
+				try {
+					loaded.put(entry.getKey(), entry.getValue().get());
+				} catch (ExecutionException | CancellationException e) {
+					Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+
+					loaded.put(entry.getKey(),
+							new Repository(entry.getKey(), Collections.emptyList(), Collections.emptyList(),
+									"BulkLoader: could not load repository '" + entry.getKey() + "' - "
+											+ cause.getMessage() + ".",
+									0));
+				}
+		} finally {
+			if (this.executor == null)
+				executor.shutdownNow();
+		}
+
+		return new Result(loaded, System.nanoTime() - start);
+	}
+
+	/**
+	 * Loads the repository.
+	 *
+	 * @param repository The repository.
+	 * @param types      The expected persistence types.
+	 * @return The loaded repository.
+	 * @since 1.8
+	 */
+	private Repository load(Path repository, Collection<Type> types) {
+		long start = System.nanoTime();
+		List<String> warnings = new ArrayList<>();
+
+		if (types == null || types.isEmpty())
+			return new Repository(repository, Collections.emptyList(), warnings,
+					"BulkLoader: no persistence types are expected for repository '" + repository + "'.", 0);
+
+		try {
+			PersistenceManager persistenceManager = new PersistenceManager(types.toArray(new Type[0]));
+			persistenceManager.setArgumentStore(argumentStore);
+			persistenceManager.setInterner(interner);
+
+			List<Entity> entities = persistenceManager.getEntities(repository, warnings::add, null);
+
+			return new Repository(repository, entities, warnings, null, System.nanoTime() - start);
+		} catch (IOException e) {
+			return new Repository(repository, Collections.emptyList(), warnings, e.getMessage(),
+					System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Defines bulk load results.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Result {
+		/**
+		 * The loaded repositories. The key is the repository.
+		 */
+		private final Map<Path, Repository> repositories;
+
+		/**
+		 * The elapsed time in nanoseconds.
+		 */
+		private final long elapsed;
+
+		/**
+		 * Creates a bulk load result.
+		 *
+		 * @param repositories The loaded repositories.
+		 * @param elapsed      The elapsed time in nanoseconds.
+		 * @since 1.8
+		 */
+		private Result(Map<Path, Repository> repositories, long elapsed) {
+			super();
+
+			this.repositories = Collections.unmodifiableMap(repositories);
+			this.elapsed = elapsed;
+		}
+
+		/**
+		 * Returns the loaded repositories.
+		 *
+		 * @return The loaded repositories in load order. The key is the
+		 *         repository.
+		 * @since 1.8
+		 */
+		public Map<Path, Repository> getRepositories() {
+			return repositories;
+		}
+
+		/**
+		 * Returns the loaded repository.
+		 *
+		 * @param repository The repository.
+		 * @return The loaded repository. Null if it was not requested.
+		 * @since 1.8
+		 */
+		public Repository getRepository(Path repository) {
+			return repositories.get(repository);
+		}
+
+		/**
+		 * Returns the entities of the repository.
+		 *
+		 * @param repository The repository.
+		 * @return The entities. Empty if the repository was not requested or could
+		 *         not be loaded.
+		 * @since 1.8
+		 */
+		public List<Entity> getEntities(Path repository) {
+			Repository loaded = repositories.get(repository);
+
+			return loaded == null ? Collections.emptyList() : loaded.getEntities();
+		}
+
+		/**
+		 * Returns true if all repositories were loaded without errors and warnings.
+		 *
+		 * @return True if all repositories were loaded without errors and warnings.
+		 * @since 1.8
+		 */
+		public boolean isClean() {
+			for (Repository repository : repositories.values())
+				if (!repository.isClean())
+					return false;
+
+			return true;
+		}
+
+		/**
+		 * Returns the elapsed time.
+		 *
+		 * @return The elapsed time in nanoseconds.
+		 * @since 1.8
+		 */
+		public long getElapsed() {
+			return elapsed;
+		}
+	}
+
+	/**
+	 * Defines loaded repositories with their diagnostics.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Repository {
+		/**
+		 * The repository.
+		 */
+		private final Path path;
+
+		/**
+		 * The entities.
+		 */
+		private final List<Entity> entities;
+
+		/**
+		 * The warnings.
+		 */
+		private final List<String> warnings;
+
+		/**
+		 * The error. Null if the repository was loaded.
+		 */
+		private final String error;
+
+		/**
+		 * The elapsed time in nanoseconds.
+		 */
+		private final long elapsed;
+
+		/**
+		 * Creates a loaded repository.
+		 *
+		 * @param path     The repository.
+		 * @param entities The entities.
+		 * @param warnings The warnings.
+		 * @param error    The error. Null if the repository was loaded.
+		 * @param elapsed  The elapsed time in nanoseconds.
+		 * @since 1.8
+		 */
+		private Repository(Path path, List<Entity> entities, List<String> warnings, String error, long elapsed) {
+			super();
+
+			this.path = path;
+			this.entities = entities;
+			this.warnings = warnings;
+			this.error = error;
+			this.elapsed = elapsed;
+		}
+
+		/**
+		 * Returns the repository.
+		 *
+		 * @return The repository.
+		 * @since 1.8
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * Returns the entities.
+		 *
+		 * @return The entities.
+		 * @since 1.8
+		 */
+		public List<Entity> getEntities() {
+			return entities;
+		}
+
+		/**
+		 * Returns the warnings.
+		 *
+		 * @return The warnings.
+		 * @since 1.8
+		 */
+		public List<String> getWarnings() {
+			return warnings;
+		}
+
+		/**
+		 * Returns the error.
+		 *
+		 * @return The error. Null if the repository was loaded.
+		 * @since 1.8
+		 */
+		public String getError() {
+			return error;
+		}
+
+		/**
+		 * Returns true if the repository was loaded.
+		 *
+		 * @return True if the repository was loaded.
+		 * @since 1.8
+		 */
+		public boolean isLoaded() {
+			return error == null;
+		}
+
+		/**
+		 * Returns true if the repository was loaded without warnings.
+		 *
+		 * @return True if the repository was loaded without warnings.
+		 * @since 1.8
+		 */
+		public boolean isClean() {
+			return error == null && warnings.isEmpty();
+		}
+
+		/**
+		 * Returns the elapsed time.
+		 *
+		 * @return The elapsed time in nanoseconds.
+		 * @since 1.8
+		 */
+		public long getElapsed() {
+			return elapsed;
+		}
+	}
+}
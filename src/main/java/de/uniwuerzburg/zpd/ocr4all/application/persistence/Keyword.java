@@ -8,6 +8,7 @@
 package de.uniwuerzburg.zpd.ocr4all.application.persistence;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
@@ -75,7 +76,7 @@ public class Keyword extends Tracking {
 	}
 
 	/**
-	 * Set the keywords. The keywords will be trimmed and converted to lower case.
+	 * Set the keywords. The keywords will be stripped and converted to lower case.
 	 *
 	 * @param keywords The keywords to set.
 	 * @since 1.8
@@ -89,26 +90,71 @@ public class Keyword extends Tracking {
 	}
 
 	/**
-	 * Normalizes the keywords, this means, it will be trimmed and converted to
-	 * lower case. Empty or null keywords are removed.
+	 * Normalizes the keywords, this means, leading and trailing white space is
+	 * stripped and they are converted to lower case. Blank or null keywords are
+	 * removed.
+	 * 
+	 * <p>
+	 * If the keywords are a set, whose elements are already normalized, the set
+	 * itself is returned without copying. Otherwise, no or a single normalized
+	 * keyword are returned as compact immutable set and more keywords as hash set
+	 * sized to the number of keywords.
+	 * </p>
 	 * 
 	 * @param keywords The keywords to normalize.
 	 * @return The normalized keywords. Null if the ginen collection is null.
 	 * @since 1.8
 	 */
+	@SuppressWarnings("unchecked")
 	public static Set<String> normalizeKeywords(Collection<String> keywords) {
 		if (keywords == null)
 			return null;
+		else if (keywords instanceof Set && isNormalized(keywords))
+			return (Set<String>) keywords;
 		else {
-			Set<String> normalized = new HashSet<>();
+			String first = null;
+			Set<String> normalized = null;
 
 			for (String keyword : keywords)
-				if (keyword != null && !keyword.isBlank())
-					normalized.add(keyword.trim().toLowerCase());
+				if (keyword != null && !keyword.isBlank()) {
+					keyword = keyword.strip().toLowerCase();
+
+					if (normalized != null)
+						normalized.add(keyword);
+					else if (first == null)
+						first = keyword;
+					else if (!first.equals(keyword)) {
+						normalized = new HashSet<>(Math.max(16, (int) (keywords.size() / .75f) + 1));
+
+						normalized.add(first);
+						normalized.add(keyword);
+					}
+				}
 
-			return normalized;
+			if (normalized != null)
+				return normalized;
+			else
+				return first == null ? Collections.emptySet() : Collections.singleton(first);
 		}
 
 	}
 
+	/**
+	 * Returns true if the keywords are normalized, this means, they are not null,
+	 * not blank, stripped and in lower case. It uses the same predicates as the
+	 * normalization. The check does not allocate memory for normalized keywords.
+	 * 
+	 * @param keywords The keywords.
+	 * @return True if the keywords are normalized.
+	 * @since 1.8
+	 */
+	private static boolean isNormalized(Collection<String> keywords) {
+		for (String keyword : keywords)
+			// strip and toLowerCase return the same instance if there is nothing to change
+			if (keyword == null || keyword.isBlank() || keyword.strip().toLowerCase() != keyword)
+				return false;
+
+		return true;
+	}
+
 }
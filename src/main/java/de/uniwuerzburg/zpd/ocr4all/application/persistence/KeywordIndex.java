@@ -0,0 +1,384 @@
+/**
+ * File:     KeywordIndex.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.folio.Folio;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.ProjectCatalog;
+
+/**
+ * Defines inverted keyword indices. The index maps every keyword to the
+ * postings of the entities that contain it. The postings are bitmaps over
+ * entity ordinals, such that conjunctions and disjunctions of keywords are
+ * answered without scanning the entities. The index can be registered as
+ * listener on persistence managers to be maintained incrementally.
+ *
+ * <p>
+ * The entities are identified by the resolver of the index. The default
+ * resolver identifies folios and project catalog entries by their id and all
+ * other keyword entities, for instance projects, sandboxes and containers, by
+ * their repository and their position in the repository.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class KeywordIndex implements PersistenceManager.Listener {
+	/**
+	 * The default resolver for entity ids.
+	 */
+	public static final Resolver defaultResolver = (repository, position, entity) -> {
+		if (entity instanceof Folio)
+			return ((Folio) entity).getId();
+		else if (entity instanceof ProjectCatalog.Entry)
+			return ((ProjectCatalog.Entry) entity).getId();
+		else
+			return repository.toString() + "#" + position;
+	};
+
+	/**
+	 * The resolver for entity ids.
+	 */
+	private final Resolver resolver;
+
+	/**
+	 * The postings. The key is the keyword.
+	 */
+	private final Map<String, BitSet> postings = new HashMap<>();
+
+	/**
+	 * The entity ids. The index is the entity ordinal. Null if the ordinal is
+	 * free.
+	 */
+	private final List<String> ids = new ArrayList<>();
+
+	/**
+	 * The free entity ordinals.
+	 */
+	private final BitSet free = new BitSet();
+
+	/**
+	 * The entity ordinals. The key is the entity id.
+	 */
+	private final Map<String, Integer> ordinals = new HashMap<>();
+
+	/**
+	 * The keywords of the entities. The key is the entity ordinal.
+	 */
+	private final Map<Integer, Set<String>> keywords = new HashMap<>();
+
+	/**
+	 * The ids of the entities indexed from a repository. The key is the
+	 * repository.
+	 */
+	private final Map<Path, Set<String>> repositories = new HashMap<>();
+
+	/**
+	 * The repositories of the indexed entities. The key is the entity id.
+	 */
+	private final Map<String, Path> origins = new HashMap<>();
+
+	/**
+	 * The number of keyword entities indexed from a repository, this means, the
+	 * position of the next keyword entity in the repository. The key is the
+	 * repository.
+	 */
+	private final Map<Path, Integer> positions = new HashMap<>();
+
+	/**
+	 * Creates a keyword index with default resolver.
+	 *
+	 * @since 1.8
+	 */
+	public KeywordIndex() {
+		this(null);
+	}
+
+	/**
+	 * Creates a keyword index.
+	 *
+	 * @param resolver The resolver for entity ids. If null, the default resolver
+	 *                 is used.
+	 * @since 1.8
+	 */
+	public KeywordIndex(Resolver resolver) {
+		super();
+
+		this.resolver = resolver == null ? defaultResolver : resolver;
+	}
+
+	/**
+	 * Builds the index from the repositories, this means, the keyword entities of
+	 * the repositories replace the indexed entities from these repositories.
+	 *
+	 * @param persistenceManager The persistence manager to read the repositories.
+	 * @param message            The functional interfaces to account for warning
+	 *                           messages. If null, ignore warning messages.
+	 * @param repositories       The repositories.
+	 * @throws IOException Throws if a repository can not be read.
+	 * @since 1.8
+	 */
+	public void build(PersistenceManager persistenceManager, PersistenceManager.Message message,
+			Path... repositories) throws IOException {
+		for (Path repository : repositories)
+			if (repository != null) {
+				List<Entity> entities = new ArrayList<>();
+				persistenceManager.process(repository, message, (number, type, entity) -> {
+					if (entity instanceof Keyword)
+						entities.add(entity);
+
+					return true;
+				});
+
+				index(repository, false, entities);
+			}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager.
+	 * Listener#persisted(java.nio.file.Path, boolean, java.util.List)
+	 */
+	@Override
+	public void persisted(Path repository, boolean isAppend, List<Entity> entities) {
+		index(repository, isAppend, entities);
+	}
+
+	/**
+	 * Indexes the keyword entities of the repository. Entities that are not
+	 * keyword entities are ignored.
+	 *
+	 * @param repository The repository.
+	 * @param isAppend   True if the entities are added to the indexed entities of
+	 *                   the repository. Otherwise, they replace them.
+	 * @param entities   The entities.
+	 * @since 1.8
+	 */
+	public synchronized void index(Path repository, boolean isAppend, Collection<? extends Entity> entities) {
+		if (repository == null)
+			return;
+
+		if (!isAppend)
+			remove(repository);
+
+		if (entities != null)
+			for (Entity entity : entities)
+				if (entity instanceof Keyword) {
+					int position = positions.merge(repository, 1, Integer::sum) - 1;
+
+					String id = resolver.getId(repository, position, (Keyword) entity);
+					if (id != null) {
+						add(id, ((Keyword) entity).getKeywords());
+
+						Path origin = origins.put(id, repository);
+						if (origin != null && !origin.equals(repository))
+							repositories.get(origin).remove(id);
+
+						repositories.computeIfAbsent(repository, key -> new HashSet<>()).add(id);
+					}
+				}
+	}
+
+	/**
+	 * Removes the entities indexed from the repository.
+	 *
+	 * @param repository The repository.
+	 * @since 1.8
+	 */
+	public synchronized void remove(Path repository) {
+		positions.remove(repository);
+
+		Set<String> ids = repositories.remove(repository);
+		if (ids != null)
+			for (String id : ids) {
+				origins.remove(id);
+				remove(id);
+			}
+	}
+
+	/**
+	 * Removes the entity from the index.
+	 *
+	 * @param id The entity id.
+	 * @since 1.8
+	 */
+	private void remove(String id) {
+		Integer ordinal = ordinals.remove(id);
+		if (ordinal == null)
+			return;
+
+		Set<String> keywords = this.keywords.remove(ordinal);
+		if (keywords != null)
+			for (String keyword : keywords) {
+				BitSet posting = postings.get(keyword);
+				if (posting != null) {
+					posting.clear(ordinal);
+
+					if (posting.isEmpty())
+						postings.remove(keyword);
+				}
+			}
+
+		ids.set(ordinal, null);
+		free.set(ordinal);
+	}
+
+	/**
+	 * Adds the entity to the index. If the entity is already indexed, its
+	 * keywords are replaced.
+	 *
+	 * @param id       The entity id.
+	 * @param keywords The keywords. They are expected to be normalized.
+	 * @since 1.8
+	 */
+	private void add(String id, Set<String> keywords) {
+		remove(id);
+
+		int ordinal = free.nextSetBit(0);
+		if (ordinal < 0) {
+			ordinal = ids.size();
+			ids.add(id);
+		} else {
+			free.clear(ordinal);
+			ids.set(ordinal, id);
+		}
+
+		ordinals.put(id, ordinal);
+
+		if (keywords != null && !keywords.isEmpty()) {
+			this.keywords.put(ordinal, new HashSet<>(keywords));
+
+			for (String keyword : keywords)
+				postings.computeIfAbsent(keyword, key -> new BitSet()).set(ordinal);
+		}
+	}
+
+	/**
+	 * Returns the ids of the entities of the posting.
+	 *
+	 * @param posting The posting.
+	 * @return The entity ids.
+	 * @since 1.8
+	 */
+	private Set<String> getIds(BitSet posting) {
+		Set<String> ids = new LinkedHashSet<>();
+
+		if (posting != null)
+			for (int ordinal = posting.nextSetBit(0); ordinal >= 0; ordinal = posting.nextSetBit(ordinal + 1))
+				ids.add(this.ids.get(ordinal));
+
+		return ids;
+	}
+
+	/**
+	 * Returns the ids of the entities that contain all keywords.
+	 *
+	 * @param keywords The keywords. They are normalized before querying.
+	 * @return The entity ids. Empty if no keywords are given.
+	 * @since 1.8
+	 */
+	public synchronized Set<String> getAll(String... keywords) {
+		if (keywords == null)
+			return new LinkedHashSet<>();
+
+		Set<String> normalized = Keyword.normalizeKeywords(Arrays.asList(keywords));
+		if (normalized.isEmpty())
+			return new LinkedHashSet<>();
+
+		BitSet result = null;
+		for (String keyword : normalized) {
+			BitSet posting = postings.get(keyword);
+			if (posting == null)
+				return new LinkedHashSet<>();
+
+			if (result == null)
+				result = (BitSet) posting.clone();
+			else
+				result.and(posting);
+		}
+
+		return getIds(result);
+	}
+
+	/**
+	 * Returns the ids of the entities that contain at least one of the keywords.
+	 *
+	 * @param keywords The keywords. They are normalized before querying.
+	 * @return The entity ids. Empty if no keywords are given.
+	 * @since 1.8
+	 */
+	public synchronized Set<String> getAny(String... keywords) {
+		if (keywords == null)
+			return new LinkedHashSet<>();
+
+		BitSet result = new BitSet();
+		for (String keyword : Keyword.normalizeKeywords(Arrays.asList(keywords))) {
+			BitSet posting = postings.get(keyword);
+			if (posting != null)
+				result.or(posting);
+		}
+
+		return getIds(result);
+	}
+
+	/**
+	 * Returns the indexed keywords.
+	 *
+	 * @return The indexed keywords.
+	 * @since 1.8
+	 */
+	public synchronized Set<String> getKeywords() {
+		return new HashSet<>(postings.keySet());
+	}
+
+	/**
+	 * Returns the number of indexed entities.
+	 *
+	 * @return The number of indexed entities.
+	 * @since 1.8
+	 */
+	public synchronized int size() {
+		return ordinals.size();
+	}
+
+	/**
+	 * Defines functional interfaces to resolve the ids of keyword entities.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	@FunctionalInterface
+	public interface Resolver {
+		/**
+		 * Returns the id of the entity.
+		 *
+		 * @param repository The repository of the entity.
+		 * @param position   The position of the entity among the keyword
+		 *                   entities of the repository.
+		 * @param entity     The entity.
+		 * @return The id. Null if the entity should not be indexed.
+		 * @since 1.8
+		 */
+		public String getId(Path repository, int position, Keyword entity);
+	}
+}
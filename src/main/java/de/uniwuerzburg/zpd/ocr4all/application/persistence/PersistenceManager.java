@@ -7,8 +7,16 @@
  */
 package de.uniwuerzburg.zpd.ocr4all.application.persistence;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -19,14 +27,34 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox.Snapshot;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.Argument;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.ArgumentStore;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.DisabledServiceProvider;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.LazyInitializedServiceProvider;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.ServiceProvider;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.TaskExecutorServiceProvider;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.util.PersistenceTools;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.util.StringInterner;
+
 /**
  * Defines persistence managers.
  *
@@ -35,6 +63,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * @since 1.8
  */
 public class PersistenceManager {
+	/**
+	 * The file name suffix of gzip compressed repositories. Compressed
+	 * repositories can be read, but not written.
+	 */
+	public static final String compressedSuffix = ".gz";
+
 	/**
 	 * The JSON object mapper.
 	 */
@@ -53,6 +87,34 @@ public class PersistenceManager {
 	 */
 	private final Set<Type> types = new HashSet<>();
 
+	/**
+	 * The store to deduplicate the service provider arguments. Null if the
+	 * arguments are embedded in the entities.
+	 */
+	private ArgumentStore argumentStore = null;
+
+	/**
+	 * The interner to canonicalize the low-cardinality values of the read
+	 * entities. Null if the values are not canonicalized.
+	 */
+	private StringInterner interner = null;
+
+	/**
+	 * The listeners that are notified when entities were persisted.
+	 */
+	private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The monitors to serialize the locked updates within this virtual machine,
+	 * since file locks are held on behalf of the entire virtual machine. Every
+	 * repository has its own monitor, such that the foreign code called while a
+	 * repository is locked, for instance, the listeners and the argument store,
+	 * can not block on the monitor of an unrelated repository. The monitors are
+	 * only held while they are in use. The key is the absolute normalized
+	 * repository path.
+	 */
+	private static final Map<Path, Monitor> monitors = new ConcurrentHashMap<>();
+
 	/**
 	 * Creates a persistence manager without default repository.
 	 * 
@@ -87,6 +149,302 @@ public class PersistenceManager {
 			throw new IllegalArgumentException("PersistenceManager: no types are available.");
 	}
 
+	/**
+	 * Returns the store to deduplicate the service provider arguments.
+	 *
+	 * @return The argument store. Null if the arguments are embedded in the
+	 *         entities.
+	 * @since 1.8
+	 */
+	public ArgumentStore getArgumentStore() {
+		return argumentStore;
+	}
+
+	/**
+	 * Set the store to deduplicate the service provider arguments. If set, the
+	 * arguments of the service providers are persisted once in the store and the
+	 * entities refer to them by their digest. The references are resolved when
+	 * the entities are read.
+	 *
+	 * @param argumentStore The argument store to set. Null if the arguments are
+	 *                      embedded in the entities.
+	 * @since 1.8
+	 */
+	public void setArgumentStore(ArgumentStore argumentStore) {
+		this.argumentStore = argumentStore;
+	}
+
+	/**
+	 * Adds a listener that is notified when entities were persisted.
+	 *
+	 * @param listener The listener to add. Null is ignored.
+	 * @since 1.8
+	 */
+	public void addListener(Listener listener) {
+		if (listener != null)
+			listeners.add(listener);
+	}
+
+	/**
+	 * Removes the listener.
+	 *
+	 * @param listener The listener to remove.
+	 * @return True if the listener was removed.
+	 * @since 1.8
+	 */
+	public boolean removeListener(Listener listener) {
+		return listeners.remove(listener);
+	}
+
+	/**
+	 * Returns the interner to canonicalize the low-cardinality values of the read
+	 * entities.
+	 *
+	 * @return The interner. Null if the values are not canonicalized.
+	 * @since 1.8
+	 */
+	public StringInterner getInterner() {
+		return interner;
+	}
+
+	/**
+	 * Set the interner to canonicalize the low-cardinality values of the read
+	 * entities, this means, the tracking users, the keywords, the service
+	 * provider ids, the argument names and the snapshot lock sources.
+	 *
+	 * @param interner The interner to set. Null if the values are not
+	 *                 canonicalized.
+	 * @since 1.8
+	 */
+	public void setInterner(StringInterner interner) {
+		this.interner = interner;
+	}
+
+	/**
+	 * Canonicalizes the low-cardinality values of the entity.
+	 *
+	 * @param entity The entity.
+	 * @since 1.8
+	 */
+	private void canonicalize(Entity entity) {
+		if (entity instanceof Tracking)
+			((Tracking) entity).setUser(interner.intern(((Tracking) entity).getUser()));
+
+		if (entity instanceof Keyword)
+			canonicalize((Keyword) entity);
+
+		if (entity instanceof DisabledServiceProvider || entity instanceof LazyInitializedServiceProvider
+				|| entity instanceof TaskExecutorServiceProvider)
+			((Identifier) entity).setId(interner.intern(((Identifier) entity).getId()));
+
+		if (entity instanceof Snapshot && ((Snapshot) entity).getLock() != null)
+			((Snapshot) entity).getLock().setSource(interner.intern(((Snapshot) entity).getLock().getSource()));
+
+		for (ServiceProvider serviceProvider : PersistenceTools.getServiceProviders(entity)) {
+			serviceProvider.setId(interner.intern(serviceProvider.getId()));
+
+			canonicalize(serviceProvider.getBooleans());
+			canonicalize(serviceProvider.getDecimals());
+			canonicalize(serviceProvider.getIntegers());
+			canonicalize(serviceProvider.getStrings());
+			canonicalize(serviceProvider.getImages());
+			canonicalize(serviceProvider.getRecognitionModels());
+			canonicalize(serviceProvider.getSelects());
+		}
+	}
+
+	/**
+	 * Canonicalizes the keywords. The keyword set is kept if its keywords are
+	 * already canonical. Otherwise, the keywords are replaced in place if the set
+	 * is a hash set, this means, the set is only rebuilt if it is a compact
+	 * immutable set.
+	 *
+	 * @param entity The keyword entity.
+	 * @since 1.8
+	 */
+	private void canonicalize(Keyword entity) {
+		Set<String> keywords = entity.getKeywords();
+		if (keywords == null)
+			return;
+
+		List<String> canonicals = null;
+		for (String keyword : keywords) {
+			String canonical = interner.intern(keyword);
+
+			if (canonical != keyword) {
+				if (canonicals == null)
+					canonicals = new ArrayList<>();
+
+				canonicals.add(canonical);
+			}
+		}
+
+		if (canonicals != null) {
+			if (keywords instanceof HashSet) {
+				// The equal strings are removed and added as canonical instances
+				keywords.removeAll(canonicals);
+				keywords.addAll(canonicals);
+			} else {
+				List<String> rebuilt = new ArrayList<>(keywords.size());
+				for (String keyword : keywords)
+					rebuilt.add(interner.intern(keyword));
+
+				entity.setKeywords(Keyword.normalizeKeywords(rebuilt));
+			}
+		}
+	}
+
+	/**
+	 * Canonicalizes the names of the arguments.
+	 *
+	 * @param arguments The arguments.
+	 * @since 1.8
+	 */
+	private void canonicalize(List<? extends Argument> arguments) {
+		if (arguments != null)
+			for (Argument argument : arguments)
+				if (argument != null)
+					argument.setArgument(interner.intern(argument.getArgument()));
+	}
+
+	/**
+	 * Returns the entity serialized as JSON. If an argument store is set, the
+	 * arguments of the embedded service providers are detached for serialization
+	 * and restored afterwards.
+	 *
+	 * @param entity The entity.
+	 * @return The JSON.
+	 * @throws JsonProcessingException Throws on JSON processing troubles.
+	 * @throws IOException             Throws if the arguments can not be stored.
+	 * @since 1.8
+	 */
+	private String serialize(Entity entity) throws JsonProcessingException, IOException {
+		if (argumentStore == null)
+			return objectMapper.writeValueAsString(entity);
+
+		List<ServiceProvider> serviceProviders = PersistenceTools.getServiceProviders(entity);
+		List<ServiceProvider> embedded = new ArrayList<>();
+		try {
+			for (ServiceProvider serviceProvider : serviceProviders) {
+				ServiceProvider arguments = new ServiceProvider();
+				arguments.setArguments(serviceProvider);
+				embedded.add(arguments);
+
+				argumentStore.detach(serviceProvider);
+			}
+
+			return objectMapper.writeValueAsString(entity);
+		} finally {
+			for (int i = 0; i < embedded.size(); i++)
+				if (serviceProviders.get(i).getArgumentsReference() != null
+						&& embedded.get(i).isArguments()) {
+					serviceProviders.get(i).setArguments(embedded.get(i));
+					serviceProviders.get(i).setArgumentsReference(null);
+				}
+		}
+	}
+
+	/**
+	 * Validates the persistence types of the entities.
+	 * 
+	 * @param <T>      The entity type.
+	 * @param entities The entities to validate. Null entities are ignored.
+	 * @throws UnsupportedOperationException Throws if no persistence type is
+	 *                                       defined for an entity.
+	 * @throws IllegalArgumentException      Throws if the persistence manager
+	 *                                       doesn't supports the persistence type
+	 *                                       of the given entities.
+	 * @since 1.8
+	 */
+	private <T extends Entity> void validate(Collection<T> entities)
+			throws UnsupportedOperationException, IllegalArgumentException {
+		if (entities != null)
+			for (Entity entity : entities)
+				if (entity != null) {
+					Type type = Type.getType(entity.getClass());
+					if (type == null)
+						throw new UnsupportedOperationException(
+								"PersistenceManager: no persistence type is defined for the entity class "
+										+ entities.getClass() + ".");
+					else if (!types.contains(type))
+						throw new IllegalArgumentException(
+								"PersistenceManager: the persistence manager doesn't support the type " + type.name()
+										+ ".");
+				}
+	}
+
+	/**
+	 * Returns the entities serialized as repository lines.
+	 * 
+	 * @param <T>       The entity type.
+	 * @param entities  The entities to serialize. Null entities are ignored.
+	 * @param version   The version stamp to serialize for the tracking entities.
+	 *                  If 0, the persisted version stamps are serialized. The
+	 *                  entities are not stamped, see {@link #stamp(List, long)}.
+	 * @param persisted The list to add the serialized entities.
+	 * @return The repository lines.
+	 * @throws UnsupportedOperationException Throws if no persistence type is
+	 *                                       defined for an entity.
+	 * @throws IllegalArgumentException      Throws if the persistence manager
+	 *                                       doesn't supports the persistence type
+	 *                                       of the given entities.
+	 * @throws IOException                   Throws if an entity can not be
+	 *                                       serialized.
+	 * @since 1.8
+	 */
+	private <T extends Entity> String serialize(Collection<T> entities, long version, List<Entity> persisted)
+			throws UnsupportedOperationException, IllegalArgumentException, IOException {
+		StringBuffer buffer = new StringBuffer();
+
+		validate(entities);
+
+		if (entities != null)
+			for (Entity entity : entities)
+				if (entity != null)
+					try {
+						Type type = Type.getType(entity.getClass());
+
+						String json;
+						if (version != 0 && entity instanceof Tracking) {
+							Tracking tracking = (Tracking) entity;
+							long previous = tracking.getVersion();
+
+							tracking.setVersion(version);
+							try {
+								json = serialize(entity);
+							} finally {
+								tracking.setVersion(previous);
+							}
+						} else
+							json = serialize(entity);
+
+						buffer.append(type.name() + "\t" + json + System.lineSeparator());
+
+						persisted.add(entity);
+					} catch (JsonProcessingException e) {
+						throw new IOException("PersistenceManager: troubles processing (parsing, generating) JSON - "
+								+ e.getMessage() + ".");
+					}
+
+		return buffer.toString();
+	}
+
+	/**
+	 * Stamps the tracking entities with the version stamp. It is called once the
+	 * entities are written, such that the entities are left untouched if a
+	 * listener vetoes the write or the write fails.
+	 * 
+	 * @param persisted The persisted entities.
+	 * @param version   The version stamp. If 0, the entities are not stamped.
+	 * @since 1.8
+	 */
+	private static void stamp(List<Entity> persisted, long version) {
+		if (version != 0)
+			for (Entity entity : persisted)
+				if (entity instanceof Tracking)
+					((Tracking) entity).setVersion(version);
+	}
+
 	/**
 	 * Persist the entities to the default repository. The repository is truncated
 	 * before the entity is persisted.
@@ -212,7 +570,9 @@ public class PersistenceManager {
 	}
 
 	/**
-	 * Persist the entities.
+	 * Persist the entities. If the repository is truncated, the tracking entities
+	 * are stamped with the incremented version stamp of the persisted repository,
+	 * which is read from its first entity while the repository is locked.
 	 * 
 	 * @param <T>        The entity type.
 	 * @param repository The repository. If null, the default repository is used.
@@ -239,42 +599,622 @@ public class PersistenceManager {
 		if (repository == null)
 			throw new NullPointerException("PersistenceManager: no repository is defined.");
 
-		StringBuffer buffer = new StringBuffer();
-		int number = 0;
-		if (entities != null)
-			for (Entity entity : entities)
-				if (entity != null)
+		List<Entity> persisted = new ArrayList<>();
+
+		if (isAppend) {
+			String buffer = serialize(entities, 0, persisted);
+
+			if (persisted.isEmpty())
+				return 0;
+
+			for (Listener listener : listeners)
+				listener.persisting(repository, true, persisted);
+
+			append(repository, buffer);
+		} else {
+			validate(entities);
+
+			boolean isTracking = false;
+			if (entities != null)
+				for (Entity entity : entities)
+					if (entity instanceof Tracking) {
+						isTracking = true;
+						break;
+					}
+
+			final Path path = repository;
+			final long[] version = { 0 };
+			rewrite(repository, isTracking ? Scope.head : Scope.none, content -> {
+				if (content != null)
+					version[0] = getStamp(content);
+
+				String buffer = serialize(entities, version[0], persisted);
+
+				for (Listener listener : listeners)
+					listener.persisting(path, false, persisted);
+
+				return buffer;
+			});
+
+			stamp(persisted, version[0]);
+		}
+
+		for (Listener listener : listeners)
+			listener.persisted(repository, isAppend, persisted);
+
+		return persisted.size();
+	}
+
+	/**
+	 * Returns the key of the monitor for the locked updates of the repository.
+	 * 
+	 * @param repository The repository.
+	 * @return The monitor key.
+	 * @since 1.8
+	 */
+	private static Path getMonitorKey(Path repository) {
+		return repository.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Acquires the monitor for the locked updates of the repository. It has to
+	 * be released with {@link #release(Path, Monitor)}.
+	 * 
+	 * @param key The monitor key.
+	 * @return The monitor.
+	 * @since 1.8
+	 */
+	private static Monitor acquire(Path key) {
+		return monitors.compute(key, (path, monitor) -> {
+			if (monitor == null)
+				monitor = new Monitor();
+
+			monitor.holders++;
+
+			return monitor;
+		});
+	}
+
+	/**
+	 * Releases the monitor for the locked updates of the repository. The monitor
+	 * is dropped if it is not held anymore.
+	 * 
+	 * @param key     The monitor key.
+	 * @param monitor The monitor.
+	 * @since 1.8
+	 */
+	private static void release(Path key, Monitor monitor) {
+		monitors.computeIfPresent(key, (path, held) -> --held.holders == 0 ? null : held);
+	}
+
+	/**
+	 * Defines monitors for the locked updates of repositories.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	private static class Monitor {
+		/**
+		 * The number of threads that acquired the monitor and did not release it
+		 * yet. It is only accessed within the monitor map computations.
+		 */
+		private int holders = 0;
+	}
+
+	/**
+	 * Appends the content to the repository atomically, this means, the
+	 * repository is exclusively locked by a file lock while it is written.
+	 * Concurrent locked writes of the same repository, both from this and other
+	 * processes, are serialized.
+	 * 
+	 * @param repository The repository.
+	 * @param content    The content to append.
+	 * @throws IOException Throws if the repository can not be written.
+	 * @since 1.8
+	 */
+	private void append(Path repository, String content) throws IOException {
+		Path key = getMonitorKey(repository);
+		Monitor monitor = acquire(key);
+		try {
+			synchronized (monitor) {
+				try (FileChannel channel = FileChannel.open(repository, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+					FileLock lock = channel.lock();
 					try {
-						Type type = Type.getType(entity.getClass());
-						if (type == null)
-							throw new UnsupportedOperationException(
-									"PersistenceManager: no persistence type is defined for the entity class "
-											+ entities.getClass() + ".");
-						else if (!types.contains(type))
-							throw new IllegalArgumentException(
-									"PersistenceManager: the persistence manager doesn't support the type "
-											+ type.name() + ".");
-
-						buffer.append(
-								type.name() + "\t" + objectMapper.writeValueAsString(entity) + System.lineSeparator());
-
-						number++;
-					} catch (JsonProcessingException e) {
-						throw new IOException("PersistenceManager: troubles processing (parsing, generating) JSON - "
-								+ e.getMessage() + ".");
+						ByteBuffer bytes = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+						while (bytes.hasRemaining())
+							channel.write(bytes);
+					} finally {
+						lock.release();
 					}
+				} catch (IOException e) {
+					throw new IOException("PersistenceManager: could not persist entities to repository '"
+							+ repository + "' - " + e.getMessage() + ".");
+				}
+			}
+		} finally {
+			release(key, monitor);
+		}
+	}
 
-		if (number > 0 || !isAppend)
-			try {
-				Files.write(repository, buffer.toString().getBytes(), StandardOpenOption.CREATE,
-						StandardOpenOption.WRITE,
-						isAppend ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
-			} catch (Exception e) {
-				throw new IOException("PersistenceManager: could not persist entities to repository '" + repository
-						+ "' - " + e.getMessage() + ".");
+	/**
+	 * Rewrites the repository atomically, this means, the repository is
+	 * exclusively locked by a file lock while it is read and rewritten. Concurrent
+	 * locked writes of the same repository, both from this and other processes,
+	 * are serialized.
+	 * 
+	 * @param repository The repository.
+	 * @param scope      The scope of the repository content to read for the
+	 *                   rewriter.
+	 * @param rewriter   The functional interfaces to rewrite the repository
+	 *                   content.
+	 * @return True if the repository was rewritten.
+	 * @throws IOException Throws if the repository can not be read or written.
+	 * @since 1.8
+	 */
+	private boolean rewrite(Path repository, Scope scope, Rewriter rewriter) throws IOException {
+		Path key = getMonitorKey(repository);
+		Monitor monitor = acquire(key);
+		try {
+			synchronized (monitor) {
+				try (FileChannel channel = FileChannel.open(repository, StandardOpenOption.CREATE,
+						StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+					FileLock lock = channel.lock();
+					try {
+						String content = rewriter.rewrite(read(channel, scope));
+						if (content == null)
+							return false;
+
+						ByteBuffer bytes = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+						channel.truncate(0);
+						while (bytes.hasRemaining())
+							channel.write(bytes, bytes.position());
+						channel.force(false);
+
+						return true;
+					} finally {
+						lock.release();
+					}
+				} catch (IOException e) {
+					throw new IOException("PersistenceManager: could not rewrite repository '" + repository + "' - "
+							+ e.getMessage() + ".");
+				}
+			}
+		} finally {
+			release(key, monitor);
+		}
+	}
+
+	/**
+	 * Returns the repository content in given scope. The channel position is
+	 * moved, but the channel is not closed.
+	 * 
+	 * @param channel The repository channel.
+	 * @param scope   The scope.
+	 * @return The repository content. Null if the scope is none.
+	 * @throws IOException Throws if the repository can not be read or it is too
+	 *                     large to be read completely.
+	 * @since 1.8
+	 */
+	private static String read(FileChannel channel, Scope scope) throws IOException {
+		switch (scope) {
+		case head:
+			// The reader is not closed, since it would close the channel.
+			BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+			StringBuffer head = new StringBuffer();
+
+			String line;
+			while ((line = reader.readLine()) != null) {
+				head.append(line + System.lineSeparator());
+
+				String trimmed = line.trim();
+				if (!trimmed.isEmpty() && !trimmed.startsWith("#"))
+					break;
+			}
+
+			return head.toString();
+		case all:
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("the repository size " + size + " exceeds the maximum of " + Integer.MAX_VALUE
+						+ " bytes for a complete read");
+
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+				;
+
+			return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Defines scopes of the repository content to read for rewrites.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	private enum Scope {
+		/**
+		 * The content is not read.
+		 */
+		none,
+		/**
+		 * The leading empty and comment lines and the first entity line are read.
+		 */
+		head,
+		/**
+		 * The complete content is read.
+		 */
+		all
+	}
+
+	/**
+	 * Returns the version stamp for a rewrite of the repository content, this
+	 * means, the incremented version stamp of its first entity. If the version
+	 * stamp can not be parsed, it is 0 and the returned stamp 1.
+	 * 
+	 * @param content The repository content.
+	 * @return The version stamp for a rewrite.
+	 * @since 1.8
+	 */
+	private long getStamp(String content) {
+		try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+			return getVersion(reader) + 1;
+		} catch (IOException e) {
+			return 1;
+		}
+	}
+
+	/**
+	 * Defines functional interfaces to rewrite repository contents.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	@FunctionalInterface
+	private interface Rewriter {
+		/**
+		 * Returns the rewritten repository content.
+		 * 
+		 * @param content The repository content in the scope of the rewrite. Null
+		 *                if the scope is none.
+		 * @return The rewritten repository content. Null if the repository should
+		 *         not be rewritten.
+		 * @throws IOException Throws if the content can not be rewritten.
+		 * @since 1.8
+		 */
+		public String rewrite(String content) throws IOException;
+	}
+
+	/**
+	 * Updates the first entity of given class in the repository atomically, this
+	 * means, the repository is exclusively locked by a file lock while it is read,
+	 * the update condition is evaluated on the persisted entity and the
+	 * repository is rewritten. If the entity is a tracking, it is stamped with
+	 * the incremented version stamp of the persisted repository. Concurrent
+	 * locked updates of the same repository, both from this and other processes,
+	 * are serialized. Lines that can not be parsed, for instance, entities of
+	 * unknown types, are kept verbatim on rewrite.
+	 * 
+	 * @param <T>        The entity class.
+	 * @param repository The repository. If null, the default repository is used.
+	 * @param clazz      The entity class.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @param updater    The functional interfaces to update the entity.
+	 * @return The updated entity. Null if the repository does not exist, does not
+	 *         contain an entity of given class or the updater rejected the update.
+	 * @throws NullPointerException Throws if the no repository is defined.
+	 * @throws IOException          Throws if the repository can not be read or
+	 *                              written.
+	 * @since 1.8
+	 */
+	public <T extends Entity> T update(Path repository, Class<T> clazz, Message message, Updater<T> updater)
+			throws NullPointerException, IOException {
+		if (repository == null)
+			repository = this.repository;
+
+		if (repository == null)
+			throw new NullPointerException("PersistenceManager: no repository is defined.");
+
+		if (!Files.exists(repository))
+			return null;
+
+		final Path path = repository;
+		List<Entity> entities = new ArrayList<>();
+		List<T> updated = new ArrayList<>();
+
+		if (!rewrite(repository, Scope.all, content -> {
+			// the parsed entities and the lines that can not be parsed in repository order
+			List<Object> lines = new ArrayList<>();
+			try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+				int number = 0;
+				String line;
+				while ((line = reader.readLine()) != null) {
+					Parsed parsed = parse(path, ++number, line, message);
+					if (parsed == null)
+						lines.add(line);
+					else {
+						lines.add(parsed.entity);
+						entities.add(parsed.entity);
+
+						if (updated.isEmpty() && clazz.isInstance(parsed.entity))
+							updated.add(clazz.cast(parsed.entity));
+					}
+				}
+			}
+
+			if (updated.isEmpty() || !updater.update(updated.get(0)))
+				return null;
+
+			if (updated.get(0) instanceof Tracking)
+				((Tracking) updated.get(0)).setVersion(getStamp(content));
+
+			for (Listener listener : listeners)
+				listener.persisting(path, false, entities);
+
+			StringBuffer buffer = new StringBuffer();
+			for (Object line : lines)
+				if (line instanceof Entity)
+					buffer.append(serialize(Collections.singletonList((Entity) line), 0, new ArrayList<>()));
+				else
+					buffer.append(line + System.lineSeparator());
+
+			return buffer.toString();
+		}))
+			return null;
+
+		for (Listener listener : listeners)
+			listener.persisted(repository, false, entities);
+
+		return updated.get(0);
+	}
+
+	/**
+	 * Replaces the entities of given class in the repository atomically, this
+	 * means, the repository is exclusively locked by a file lock while it is read,
+	 * the replacement is computed from the persisted entities and the repository
+	 * is rewritten with the replacement. The tracking entities of the replacement
+	 * are stamped with the incremented version stamp of the persisted repository.
+	 * Concurrent locked writes of the same repository, both from this and other
+	 * processes, are serialized.
+	 * 
+	 * @param <T>        The entity class.
+	 * @param repository The repository. If null, the default repository is used.
+	 * @param clazz      The entity class.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @param replacer   The functional interfaces to replace the entities.
+	 * @return True if the repository was rewritten. False if the repository does
+	 *         not exist or the replacer rejected the replacement.
+	 * @throws NullPointerException          Throws if the no repository is defined.
+	 * @throws UnsupportedOperationException Throws if no persistence type is
+	 *                                       defined for an entity of the
+	 *                                       replacement.
+	 * @throws IllegalArgumentException      Throws if the persistence manager
+	 *                                       doesn't supports the persistence type
+	 *                                       of an entity of the replacement.
+	 * @throws IOException                   Throws if the repository can not be
+	 *                                       read or written.
+	 * @since 1.8
+	 */
+	public <T extends Entity> boolean replace(Path repository, Class<T> clazz, Message message, Replacer<T> replacer)
+			throws NullPointerException, UnsupportedOperationException, IllegalArgumentException, IOException {
+		if (repository == null)
+			repository = this.repository;
+
+		if (repository == null)
+			throw new NullPointerException("PersistenceManager: no repository is defined.");
+
+		if (!Files.exists(repository))
+			return false;
+
+		final Path path = repository;
+		List<Entity> persisted = new ArrayList<>();
+
+		final long[] version = { 0 };
+		if (!rewrite(repository, Scope.all, content -> {
+			List<T> entities = new ArrayList<>();
+			process(path, new BufferedReader(new StringReader(content)), message, (number, type, entity) -> {
+				if (clazz.isInstance(entity))
+					entities.add(clazz.cast(entity));
+
+				return true;
+			});
+
+			Collection<? extends Entity> replacement = replacer.replace(entities);
+			if (replacement == null)
+				return null;
+
+			version[0] = getStamp(content);
+			String buffer = serialize(replacement, version[0], persisted);
+
+			for (Listener listener : listeners)
+				listener.persisting(path, false, persisted);
+
+			return buffer;
+		}))
+			return false;
+
+		stamp(persisted, version[0]);
+
+		for (Listener listener : listeners)
+			listener.persisted(repository, false, persisted);
+
+		return true;
+	}
+
+	/**
+	 * Persist the entities if the persisted version stamp of the repository
+	 * matches the expected one, this means, the repository was not rewritten
+	 * since it was read by the caller. The repository is exclusively locked by a
+	 * file lock while the version stamp is compared and the entities are written.
+	 * The tracking entities are stamped with the incremented version stamp. If the
+	 * version stamp does not match, the repository is left untouched, in
+	 * particular, a missing repository is not created.
+	 * 
+	 * @param <T>        The entity type.
+	 * @param repository The repository. If null, the default repository is used.
+	 * @param version    The expected version stamp. It is 0 if the repository does
+	 *                   not exist.
+	 * @param entities   The entities to persist.
+	 * @return True if the entities were persisted. False if the version stamp does
+	 *         not match.
+	 * @throws NullPointerException          Throws if the no repository is defined.
+	 * @throws UnsupportedOperationException Throws if no persistence type is
+	 *                                       defined for an entity.
+	 * @throws IllegalArgumentException      Throws if the persistence manager
+	 *                                       doesn't supports the persistence type
+	 *                                       of the given entities.
+	 * @throws IOException                   Throws if an entity can not be
+	 *                                       persisted.
+	 * @since 1.8
+	 */
+	public <T extends Entity> boolean persistIf(Path repository, long version, Collection<T> entities)
+			throws NullPointerException, UnsupportedOperationException, IllegalArgumentException, IOException {
+		if (repository == null)
+			repository = this.repository;
+
+		if (repository == null)
+			throw new NullPointerException("PersistenceManager: no repository is defined.");
+
+		validate(entities);
+
+		if (version != 0 && !Files.exists(repository))
+			return false;
+
+		final Path path = repository;
+		List<Entity> persisted = new ArrayList<>();
+		if (!rewrite(repository, Scope.head, content -> {
+			try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+				if (getVersion(reader) != version)
+					return null;
 			}
 
-		return number;
+			String buffer = serialize(entities, version + 1, persisted);
+
+			for (Listener listener : listeners)
+				listener.persisting(path, false, persisted);
+
+			return buffer;
+		}))
+			return false;
+
+		stamp(persisted, version + 1);
+
+		for (Listener listener : listeners)
+			listener.persisted(repository, false, persisted);
+
+		return true;
+	}
+
+	/**
+	 * Returns the version stamp of the default repository without deserializing
+	 * its entities.
+	 * 
+	 * @return The version stamp of the first entity. It is 0 if the repository
+	 *         does not exist or the entity has no version stamp.
+	 * @throws NullPointerException Throws if the no repository is defined.
+	 * @throws IOException          Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public long getVersion() throws NullPointerException, IOException {
+		return getVersion((Path) null);
+	}
+
+	/**
+	 * Returns the version stamp of the repository without deserializing its
+	 * entities, this means, only the top level fields of the first entity are
+	 * scanned.
+	 * 
+	 * @param repository The repository. If null, the default repository is used.
+	 * @return The version stamp of the first entity. It is 0 if the repository
+	 *         does not exist or the entity has no version stamp.
+	 * @throws NullPointerException Throws if the no repository is defined.
+	 * @throws IOException          Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public long getVersion(Path repository) throws NullPointerException, IOException {
+		if (repository == null)
+			repository = this.repository;
+
+		if (repository == null)
+			throw new NullPointerException("PersistenceManager: no repository is defined.");
+
+		if (!Files.exists(repository))
+			return 0;
+
+		try (BufferedReader reader = getReader(repository)) {
+			return getVersion(reader);
+		} catch (IOException e) {
+			throw new IOException(
+					"PersistenceManager: could not read repository '" + repository + "' - " + e.getMessage() + ".");
+		}
+	}
+
+	/**
+	 * Returns a reader for the repository. Repositories whose names end with
+	 * {@link #compressedSuffix} are decompressed on the fly.
+	 * 
+	 * @param repository The repository.
+	 * @return The reader.
+	 * @throws IOException Throws if the repository can not be opened.
+	 * @since 1.8
+	 */
+	public static BufferedReader getReader(Path repository) throws IOException {
+		return repository.getFileName().toString().endsWith(compressedSuffix)
+				? new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(repository)),
+						StandardCharsets.UTF_8))
+				: Files.newBufferedReader(repository);
+	}
+
+	/**
+	 * Returns the version stamp of the first entity from the reader.
+	 * 
+	 * @param reader The reader.
+	 * @return The version stamp of the first entity. It is 0 if no entity is
+	 *         available or the entity has no version stamp.
+	 * @throws IOException Throws if the reader can not be read or the entity can
+	 *                     not be parsed.
+	 * @since 1.8
+	 */
+	private long getVersion(BufferedReader reader) throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+
+			// Ignore empty lines and comments, this means, lines starting with #
+			if (line.isEmpty() || line.startsWith("#"))
+				continue;
+
+			String[] split = line.split("\t", 2);
+			if (split.length != 2)
+				return 0;
+
+			try (JsonParser parser = objectMapper.createParser(split[1])) {
+				if (parser.nextToken() != JsonToken.START_OBJECT)
+					return 0;
+
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.getCurrentName();
+					parser.nextToken();
+
+					if ("version".equals(field))
+						return parser.getValueAsLong();
+					else
+						parser.skipChildren();
+				}
+			}
+
+			return 0;
+		}
+
+		return 0;
 	}
 
 	/**
@@ -363,135 +1303,549 @@ public class PersistenceManager {
 	public Entity getEntity(Path repository, Message message) throws NullPointerException, IOException {
 		List<Entity> entries = getEntities(repository, message, 1, null);
 
-		return entries.isEmpty() ? null : entries.get(0);
+		return entries.isEmpty() ? null : entries.get(0);
+	}
+
+	/**
+	 * Returns the persisted entities.
+	 * 
+	 * @param repository The repository. If null, the default repository is used.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @param comparator The comparison function to sort the entities. Null if
+	 *                   returns the repository read order.
+	 * @return The entities.
+	 * @throws NullPointerException Throws if the no repository is defined.
+	 * @throws IOException          Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public List<Entity> getEntities(Path repository, Message message, Comparator<Entity> comparator)
+			throws NullPointerException, IOException {
+		return getEntities(repository, message, 0, comparator);
+	}
+
+	/**
+	 * Returns the persisted entities.
+	 * 
+	 * @param repository The repository. If null, the default repository is used.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @param maximum    The maximum number of entities to return. A number less
+	 *                   than 1 returns all entities.
+	 * @param comparator The comparison function to sort the entities. Null if
+	 *                   returns the repository read order.
+	 * @param types      The types to filter the entities. If empty, no filter is
+	 *                   applied.
+	 * @return The entities.
+	 * @throws NullPointerException Throws if the no repository is defined.
+	 * @throws IOException          Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public List<Entity> getEntities(Path repository, Message message, int maximum, Comparator<Entity> comparator,
+			Type... types) throws NullPointerException, IOException {
+		Set<Type> filter = new HashSet<Type>();
+		for (Type type : types)
+			if (type != null)
+				filter.add(type);
+
+		return getEntities(repository, message, maximum, comparator,
+				(number, type, entity) -> filter.isEmpty() || filter.contains(type));
+	}
+
+	/**
+	 * Returns the persisted entities.
+	 * 
+	 * @param repository The repository. If null, the default repository is used.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @param maximum    The maximum number of entities to return. A number less
+	 *                   than 1 returns all entities.
+	 * @param comparator The comparison function to sort the entities. Null if
+	 *                   returns the repository read order.
+	 * @param filter     The functional interfaces to filter entities. If null, do
+	 *                   not filter entities.
+	 * @return The entities.
+	 * @throws NullPointerException Throws if the no repository is defined.
+	 * @throws IOException          Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public List<Entity> getEntities(Path repository, Message message, int maximum, Comparator<Entity> comparator,
+			Filter filter) throws NullPointerException, IOException {
+		if (repository == null)
+			repository = this.repository;
+
+		if (repository == null)
+			throw new NullPointerException("PersistenceManager: no repository is defined.");
+
+		List<Entity> entities = new ArrayList<>();
+
+		process(repository, message, (number, type, entity) -> {
+			// Filter required records
+			if (filter == null || filter.isThrough(entities.size(), type, entity))
+				entities.add(entity);
+
+			return maximum < 1 || entities.size() < maximum;
+		});
+
+		if (comparator != null)
+			Collections.sort(entities, comparator);
+
+		return entities;
+	}
+
+	/**
+	 * Processes the persisted entities in the repository read order without
+	 * holding them in memory, this means, the repository is read line by line and
+	 * every entity is passed to the handler as soon as it is parsed.
+	 * 
+	 * @param repository The repository. If null, the default repository is used.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @param handler    The functional interfaces to handle the entities.
+	 * @return The number of handled entities.
+	 * @throws NullPointerException Throws if the no repository is defined.
+	 * @throws IOException          Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public int process(Path repository, Message message, Handler handler) throws NullPointerException, IOException {
+		if (repository == null)
+			repository = this.repository;
+
+		if (repository == null)
+			throw new NullPointerException("PersistenceManager: no repository is defined.");
+
+		if (!Files.exists(repository))
+			return 0;
+
+		try (BufferedReader reader = getReader(repository)) {
+			return process(repository, reader, message, handler);
+		} catch (IOException e) {
+			throw new IOException(
+					"PersistenceManager: could not read repository '" + repository + "' - " + e.getMessage() + ".");
+		}
 	}
 
 	/**
-	 * Returns the persisted entities.
+	 * Processes the persisted entities from the reader in the read order. The
+	 * reader is not closed.
 	 * 
-	 * @param repository The repository. If null, the default repository is used.
+	 * @param repository The repository. It is only used for warning messages and
+	 *                   can be null.
+	 * @param reader     The reader.
 	 * @param message    The functional interfaces to account for warning messages.
 	 *                   If null, ignore warning messages.
-	 * @param comparator The comparison function to sort the entities. Null if
-	 *                   returns the repository read order.
-	 * @return The entities.
-	 * @throws NullPointerException Throws if the no repository is defined.
-	 * @throws IOException          Throws if the repository can not be read.
+	 * @param handler    The functional interfaces to handle the entities.
+	 * @return The number of handled entities.
+	 * @throws IOException Throws if the reader can not be read.
 	 * @since 1.8
 	 */
-	public List<Entity> getEntities(Path repository, Message message, Comparator<Entity> comparator)
-			throws NullPointerException, IOException {
-		return getEntities(repository, message, 0, comparator);
+	public int process(Path repository, BufferedReader reader, Message message, Handler handler)
+			throws IOException {
+		int number = 0;
+		int handled = 0;
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			number++;
+
+			Parsed parsed = parse(repository, number, line, message);
+			if (parsed != null && !handler.handle(handled++, parsed.type, parsed.entity))
+				break;
+		}
+
+		return handled;
 	}
 
 	/**
-	 * Returns the persisted entities.
+	 * Returns a publisher of the persisted entities of the repository. The
+	 * entities are emitted on the thread requesting them.
 	 * 
 	 * @param repository The repository. If null, the default repository is used.
 	 * @param message    The functional interfaces to account for warning messages.
 	 *                   If null, ignore warning messages.
-	 * @param maximum    The maximum number of entities to return. A number less
-	 *                   than 1 returns all entities.
-	 * @param comparator The comparison function to sort the entities. Null if
-	 *                   returns the repository read order.
-	 * @param types      The types to filter the entities. If empty, no filter is
-	 *                   applied.
-	 * @return The entities.
+	 * @return The publisher.
 	 * @throws NullPointerException Throws if the no repository is defined.
-	 * @throws IOException          Throws if the repository can not be read.
 	 * @since 1.8
 	 */
-	public List<Entity> getEntities(Path repository, Message message, int maximum, Comparator<Entity> comparator,
-			Type... types) throws NullPointerException, IOException {
-		Set<Type> filter = new HashSet<Type>();
-		for (Type type : types)
-			if (type != null)
-				filter.add(type);
-
-		return getEntities(repository, message, maximum, comparator,
-				(number, type, entity) -> filter.isEmpty() || filter.contains(type));
+	public Flow.Publisher<Entity> getPublisher(Path repository, Message message) throws NullPointerException {
+		return getPublisher(repository, message, null);
 	}
 
 	/**
-	 * Returns the persisted entities.
+	 * Returns a publisher of the persisted entities of the repository. Every
+	 * subscriber reads the repository on its own. The lines are read and parsed
+	 * lazily as demand arrives, such that the first entity is emitted without
+	 * reading the whole repository. If a subscription is cancelled, the
+	 * repository is closed. Lines that can not be parsed are reported as warning
+	 * messages and skipped.
 	 * 
 	 * @param repository The repository. If null, the default repository is used.
 	 * @param message    The functional interfaces to account for warning messages.
 	 *                   If null, ignore warning messages.
-	 * @param maximum    The maximum number of entities to return. A number less
-	 *                   than 1 returns all entities.
-	 * @param comparator The comparison function to sort the entities. Null if
-	 *                   returns the repository read order.
-	 * @param filter     The functional interfaces to filter entities. If null, do
-	 *                   not filter entities.
-	 * @return The entities.
+	 * @param executor   The executor to emit the entities. If null, the entities
+	 *                   are emitted on the thread requesting them.
+	 * @return The publisher.
 	 * @throws NullPointerException Throws if the no repository is defined.
-	 * @throws IOException          Throws if the repository can not be read.
 	 * @since 1.8
 	 */
-	public List<Entity> getEntities(Path repository, Message message, int maximum, Comparator<Entity> comparator,
-			Filter filter) throws NullPointerException, IOException {
+	public Flow.Publisher<Entity> getPublisher(Path repository, Message message, Executor executor)
+			throws NullPointerException {
 		if (repository == null)
 			repository = this.repository;
 
 		if (repository == null)
 			throw new NullPointerException("PersistenceManager: no repository is defined.");
 
-		List<Entity> entities = new ArrayList<>();
+		final Path path = repository;
+		return subscriber -> subscriber.onSubscribe(new EntitySubscription(path, message, executor, subscriber));
+	}
+
+	/**
+	 * Defines subscriptions to persisted entities. The emission is serialized by
+	 * a work-in-progress counter, such that requests from within the subscriber
+	 * callbacks do not recurse.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	private class EntitySubscription implements Flow.Subscription {
+		/**
+		 * The repository.
+		 */
+		private final Path repository;
+
+		/**
+		 * The functional interfaces to account for warning messages. Null if
+		 * warning messages are ignored.
+		 */
+		private final Message message;
+
+		/**
+		 * The executor to emit the entities. Null if the entities are emitted on the
+		 * thread requesting them.
+		 */
+		private final Executor executor;
+
+		/**
+		 * The subscriber.
+		 */
+		private final Flow.Subscriber<? super Entity> subscriber;
+
+		/**
+		 * The outstanding demand.
+		 */
+		private final AtomicLong requested = new AtomicLong();
+
+		/**
+		 * The work-in-progress counter.
+		 */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		/**
+		 * True if the subscription was cancelled.
+		 */
+		private volatile boolean isCancelled = false;
+
+		/**
+		 * True if the subscription is terminated.
+		 */
+		private boolean isTerminated = false;
+
+		/**
+		 * The invalid demand. Null if the demand is valid.
+		 */
+		private volatile IllegalArgumentException invalid = null;
+
+		/**
+		 * The reader. Null if the repository is not opened.
+		 */
+		private BufferedReader reader = null;
+
+		/**
+		 * The line number.
+		 */
+		private int number = 0;
+
+		/**
+		 * Creates a subscription to persisted entities.
+		 * 
+		 * @param repository The repository.
+		 * @param message    The functional interfaces to account for warning
+		 *                   messages. If null, ignore warning messages.
+		 * @param executor   The executor to emit the entities. If null, the
+		 *                   entities are emitted on the thread requesting them.
+		 * @param subscriber The subscriber.
+		 * @since 1.8
+		 */
+		private EntitySubscription(Path repository, Message message, Executor executor,
+				Flow.Subscriber<? super Entity> subscriber) {
+			super();
+
+			this.repository = repository;
+			this.message = message;
+			this.executor = executor;
+			this.subscriber = subscriber;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.Flow.Subscription#request(long)
+		 */
+		@Override
+		public void request(long n) {
+			if (n <= 0)
+				invalid = new IllegalArgumentException(
+						"PersistenceManager: the requested number of entities must be positive.");
+			else
+				requested.accumulateAndGet(n, (current, demand) -> current + demand < 0 ? Long.MAX_VALUE
+						: current + demand);
+
+			schedule();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.Flow.Subscription#cancel()
+		 */
+		@Override
+		public void cancel() {
+			isCancelled = true;
+
+			schedule();
+		}
+
+		/**
+		 * Schedules the emission.
+		 * 
+		 * @since 1.8
+		 */
+		private void schedule() {
+			if (wip.getAndIncrement() == 0) {
+				if (executor == null)
+					drain();
+				else
+					executor.execute(this::drain);
+			}
+		}
+
+		/**
+		 * Drains the scheduled emissions. If a subscriber callback throws an
+		 * exception, the subscription is cancelled and the work-in-progress
+		 * counter is released nevertheless.
+		 * 
+		 * @since 1.8
+		 */
+		private void drain() {
+			int missed = 1;
+			do {
+				if (!isTerminated)
+					try {
+						emit();
+					} catch (RuntimeException e) {
+						fail(e);
+					}
+
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
 
-		if (Files.exists(repository))
+		/**
+		 * Emits the entities as long as demand is outstanding and signals the
+		 * termination.
+		 * 
+		 * @since 1.8
+		 */
+		private void emit() {
 			try {
-				int number = 0;
-				for (String line : Files.readAllLines(repository)) {
-					number++;
-					line = line.trim();
-
-					// Ignore empty lines and comments, this means, lines starting with #
-					if (line.isEmpty() || line.startsWith("#"))
-						continue;
-
-					String[] split = line.split("\t", 2);
-					if (split.length == 2)
-						try {
-							Type type = Type.valueOf(split[0]);
-
-							if (types.contains(type))
-								try {
-									Entity entity = objectMapper.readValue(split[1], type.getTypeClass());
-
-									// Filter required records
-									if (filter == null || filter.isThrough(entities.size(), type, entity))
-										entities.add(entity);
-								} catch (Exception e) {
-									if (message != null)
-										message.warn(number + ": could not parse line from repository '" + repository
-												+ "' (type " + split[0] + ") - " + e.getMessage() + ".");
-								}
-							else if (message != null)
-								message.warn(number + ": the persistence manager doesn't supports the entity type "
-										+ type.name() + ".");
-
-						} catch (Exception e) {
-							if (message != null)
-								message.warn(number + ": unknown entity type '" + split[0] + "' from repository '"
-										+ repository + "'.");
+				if (isCancelled)
+					terminate();
+				else if (invalid != null) {
+					terminate();
+					subscriber.onError(invalid);
+				} else
+					while (requested.get() > 0 && !isCancelled) {
+						if (reader == null) {
+							if (!Files.exists(repository)) {
+								terminate();
+								subscriber.onComplete();
+
+								break;
+							}
+
+							reader = getReader(repository);
 						}
-					else if (message != null)
-						message.warn(number + ": could not parse line from repository '" + repository + "'.");
 
-					if (maximum > 0 && entities.size() >= maximum)
-						break;
-				}
+						String line = reader.readLine();
+						if (line == null) {
+							terminate();
+							subscriber.onComplete();
+
+							break;
+						}
+
+						Parsed parsed = parse(repository, ++number, line, message);
+						if (parsed != null) {
+							requested.decrementAndGet();
+							subscriber.onNext(parsed.entity);
+						}
+					}
 
+				if (isCancelled)
+					terminate();
 			} catch (IOException e) {
-				throw new IOException(
-						"PersistenceManager: could not read repository '" + repository + "' - " + e.getMessage() + ".");
+				terminate();
+				subscriber.onError(new IOException("PersistenceManager: could not read repository '" + repository
+						+ "' - " + e.getMessage() + "."));
 			}
+		}
 
-		if (comparator != null)
-			Collections.sort(entities, comparator);
+		/**
+		 * Cancels the subscription after a subscriber callback threw an
+		 * exception. If the subscription was not terminated yet, this means, the
+		 * exception was thrown by onNext, the subscriber is notified with onError.
+		 * 
+		 * @param exception The exception.
+		 * @since 1.8
+		 */
+		private void fail(RuntimeException exception) {
+			boolean isSignalled = isTerminated;
+
+			isCancelled = true;
+			terminate();
+
+			if (!isSignalled)
+				try {
+					subscriber.onError(exception);
+				} catch (RuntimeException e) {
+					if (message != null)
+						message.warn("the subscriber of repository '" + repository + "' failed - " + e.getMessage()
+								+ ".");
+				}
+		}
 
-		return entities;
+		/**
+		 * Terminates the subscription and closes the repository.
+		 * 
+		 * @since 1.8
+		 */
+		private void terminate() {
+			isTerminated = true;
+
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					if (message != null)
+						message.warn("could not close repository '" + repository + "' - " + e.getMessage() + ".");
+				}
+
+				reader = null;
+			}
+		}
+	}
+
+	/**
+	 * Defines parsed entities.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	private static class Parsed {
+		/**
+		 * The persistence type.
+		 */
+		private final Type type;
+
+		/**
+		 * The entity.
+		 */
+		private final Entity entity;
+
+		/**
+		 * Creates a parsed entity.
+		 * 
+		 * @param type   The persistence type.
+		 * @param entity The entity.
+		 * @since 1.8
+		 */
+		private Parsed(Type type, Entity entity) {
+			super();
+
+			this.type = type;
+			this.entity = entity;
+		}
+	}
+
+	/**
+	 * Parses a repository line.
+	 * 
+	 * @param repository The repository. It is only used for warning messages.
+	 * @param number     The line number.
+	 * @param line       The line.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The parsed entity. Null if the line is empty, a comment or can not
+	 *         be parsed.
+	 * @since 1.8
+	 */
+	private Parsed parse(Path repository, int number, String line, Message message) {
+		line = line.trim();
+
+		// Ignore empty lines and comments, this means, lines starting with #
+		if (line.isEmpty() || line.startsWith("#"))
+			return null;
+
+		String[] split = line.split("\t", 2);
+		if (split.length != 2) {
+			if (message != null)
+				message.warn(number + ": could not parse line from repository '" + repository + "'.");
+
+			return null;
+		}
+
+		Type type;
+		try {
+			type = Type.valueOf(split[0]);
+		} catch (Exception e) {
+			if (message != null)
+				message.warn(number + ": unknown entity type '" + split[0] + "' from repository '" + repository + "'.");
+
+			return null;
+		}
+
+		if (!types.contains(type)) {
+			if (message != null)
+				message.warn(
+						number + ": the persistence manager doesn't supports the entity type " + type.name() + ".");
+
+			return null;
+		}
+
+		try {
+			Entity entity = objectMapper.readValue(split[1], type.getTypeClass());
+
+			if (argumentStore != null)
+				for (ServiceProvider serviceProvider : PersistenceTools.getServiceProviders(entity))
+					if (!argumentStore.resolve(serviceProvider) && message != null)
+						message.warn(number + ": unknown arguments reference '"
+								+ serviceProvider.getArgumentsReference() + "' from repository '" + repository
+								+ "'.");
+
+			if (interner != null)
+				canonicalize(entity);
+
+			return new Parsed(type, entity);
+		} catch (Exception e) {
+			if (message != null)
+				message.warn(number + ": could not parse line from repository '" + repository + "' (type "
+						+ split[0] + ") - " + e.getMessage() + ".");
+
+			return null;
+		}
 	}
 
 	/**
@@ -775,4 +2129,110 @@ public class PersistenceManager {
 		public boolean isThrough(int number, Type type, Entity entity);
 	}
 
+	/**
+	 * Defines functional interfaces to handle entities.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	@FunctionalInterface
+	public interface Handler {
+		/**
+		 * Handles the entity.
+		 * 
+		 * @param number The number of previously handled entities.
+		 * @param type   The persistence type.
+		 * @param entity The entity.
+		 * @return True if further entities should be handled. False to stop
+		 *         processing.
+		 * @since 1.8
+		 */
+		public boolean handle(int number, Type type, Entity entity);
+	}
+
+	/**
+	 * Defines functional interfaces to update entities.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	@FunctionalInterface
+	public interface Updater<T extends Entity> {
+		/**
+		 * Updates the persisted entity if the update condition is fulfilled.
+		 * 
+		 * @param entity The persisted entity.
+		 * @return True if the entity was updated and should be persisted. False
+		 *         if the update condition is not fulfilled.
+		 * @since 1.8
+		 */
+		public boolean update(T entity);
+	}
+
+	/**
+	 * Defines functional interfaces to replace entities.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	@FunctionalInterface
+	public interface Replacer<T extends Entity> {
+		/**
+		 * Returns the replacement of the persisted entities.
+		 * 
+		 * @param entities The persisted entities.
+		 * @return The replacement. Null if the repository should not be rewritten.
+		 * @throws IOException Throws if the replacement can not be computed. The
+		 *                     repository is not rewritten.
+		 * @since 1.8
+		 */
+		public Collection<? extends Entity> replace(List<T> entities) throws IOException;
+	}
+
+	/**
+	 * Defines functional interfaces to listen to persisted entities. Listeners
+	 * can veto a persist before the repository is written.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	@FunctionalInterface
+	public interface Listener {
+		/**
+		 * Notifies that the entities are about to be persisted. The repository is
+		 * not written if an exception is thrown. For locked updates, the
+		 * notification takes place while the repository is locked. The default
+		 * implementation accepts all entities.
+		 * 
+		 * @param repository The repository.
+		 * @param isAppend   True if the entities are written to the end of the
+		 *                   repository. Otherwise, the repository is truncated
+		 *                   before the entities are persisted.
+		 * @param entities   The entities to persist.
+		 * @throws IOException Throws if the listener vetoes the persist.
+		 * @since 1.8
+		 */
+		public default void persisting(Path repository, boolean isAppend, List<Entity> entities)
+				throws IOException {
+		}
+
+		/**
+		 * Notifies that the entities were persisted.
+		 * 
+		 * @param repository The repository.
+		 * @param isAppend   True if the entities were written to the end of the
+		 *                   repository. Otherwise, the repository was truncated
+		 *                   before the entities were persisted.
+		 * @param entities   The persisted entities.
+		 * @throws IOException Throws if the listener can not process the persisted
+		 *                     entities.
+		 * @since 1.8
+		 */
+		public void persisted(Path repository, boolean isAppend, List<Entity> entities) throws IOException;
+	}
+
 }
@@ -0,0 +1,539 @@
+/**
+ * File:     RepositoryWatcher.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Defines repository watchers. The watcher monitors the folders of the
+ * registered repositories with a watch service and dispatches typed change
+ * events to its listeners. Bursts of file system events are debounced and
+ * coalesced, this means, a repository is evaluated once it was quiet for the
+ * debounce time and a single event describes the change since the last
+ * dispatched state.
+ *
+ * <p>
+ * A change is classified as append if the repository grew and the tail of the
+ * previously observed content is unchanged. Otherwise, it is classified as
+ * rewrite.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class RepositoryWatcher implements Closeable {
+	/**
+	 * The default debounce time in milliseconds.
+	 */
+	public static final long defaultDebounce = 200;
+
+	/**
+	 * The size of the content tail to detect appends.
+	 */
+	private static final int tailSize = 4096;
+
+	/**
+	 * Defines event kinds.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public enum Kind {
+		created, appended, rewritten, deleted
+	}
+
+	/**
+	 * The debounce time in milliseconds.
+	 */
+	private final long debounce;
+
+	/**
+	 * The watch service.
+	 */
+	private final WatchService watchService;
+
+	/**
+	 * The listeners.
+	 */
+	private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The last dispatched states of the registered repositories. The key is the
+	 * normalized absolute repository.
+	 */
+	private final Map<Path, State> states = new HashMap<>();
+
+	/**
+	 * The watch keys of the monitored folders. The key is the folder.
+	 */
+	private final Map<Path, WatchKey> folders = new HashMap<>();
+
+	/**
+	 * The deadlines of the pending repositories in nanoseconds.
+	 */
+	private final Map<Path, Long> pending = new HashMap<>();
+
+	/**
+	 * The watch thread. Null if not started.
+	 */
+	private Thread thread = null;
+
+	/**
+	 * Creates a repository watcher with default debounce time.
+	 *
+	 * @throws IOException Throws if the watch service can not be created.
+	 * @since 1.8
+	 */
+	public RepositoryWatcher() throws IOException {
+		this(defaultDebounce);
+	}
+
+	/**
+	 * Creates a repository watcher.
+	 *
+	 * @param debounce The debounce time in milliseconds. If negative, the default
+	 *                 debounce time is used.
+	 * @throws IOException Throws if the watch service can not be created.
+	 * @since 1.8
+	 */
+	public RepositoryWatcher(long debounce) throws IOException {
+		super();
+
+		this.debounce = debounce < 0 ? defaultDebounce : debounce;
+
+		watchService = FileSystems.getDefault().newWatchService();
+	}
+
+	/**
+	 * Adds the listener.
+	 *
+	 * @param listener The listener to add.
+	 * @since 1.8
+	 */
+	public void addListener(Listener listener) {
+		if (listener != null)
+			listeners.add(listener);
+	}
+
+	/**
+	 * Removes the listener.
+	 *
+	 * @param listener The listener to remove.
+	 * @return True if the listener was removed.
+	 * @since 1.8
+	 */
+	public boolean removeListener(Listener listener) {
+		return listeners.remove(listener);
+	}
+
+	/**
+	 * Registers the repository. Its folder has to exist.
+	 *
+	 * @param repository The repository.
+	 * @throws IOException Throws if the folder of the repository can not be
+	 *                     monitored.
+	 * @since 1.8
+	 */
+	public synchronized void register(Path repository) throws IOException {
+		repository = repository.toAbsolutePath().normalize();
+
+		Path folder = repository.getParent();
+		if (!folders.containsKey(folder))
+			try {
+				folders.put(folder, folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE));
+			} catch (IOException e) {
+				throw new IOException(
+						"RepositoryWatcher: could not monitor folder '" + folder + "' - " + e.getMessage() + ".");
+			}
+
+		states.put(repository, State.observe(repository));
+	}
+
+	/**
+	 * Unregisters the repository. The monitoring of its folder is cancelled if no
+	 * further repositories of the folder are registered.
+	 *
+	 * @param repository The repository.
+	 * @since 1.8
+	 */
+	public synchronized void unregister(Path repository) {
+		Path path = repository.toAbsolutePath().normalize();
+
+		states.remove(path);
+		pending.remove(path);
+
+		Path folder = path.getParent();
+		for (Path registered : states.keySet())
+			if (registered.getParent().equals(folder))
+				return;
+
+		WatchKey key = folders.remove(folder);
+		if (key != null)
+			key.cancel();
+	}
+
+	/**
+	 * Returns the registered repositories.
+	 *
+	 * @return The registered repositories.
+	 * @since 1.8
+	 */
+	public synchronized Set<Path> getRepositories() {
+		return Set.copyOf(states.keySet());
+	}
+
+	/**
+	 * Starts the watch thread. The thread is a daemon thread.
+	 *
+	 * @since 1.8
+	 */
+	public synchronized void start() {
+		if (thread == null) {
+			thread = new Thread(this::watch, "repository-watcher");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		Thread thread;
+		synchronized (this) {
+			thread = this.thread;
+			this.thread = null;
+		}
+
+		watchService.close();
+
+		if (thread != null)
+			thread.interrupt();
+	}
+
+	/**
+	 * Watches the monitored folders until the watcher is closed.
+	 *
+	 * @since 1.8
+	 */
+	private void watch() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = watchService.poll(getTimeout(), TimeUnit.NANOSECONDS);
+
+				if (key != null) {
+					schedule(key);
+
+					// Drain the burst of pending keys
+					while ((key = watchService.poll()) != null)
+						schedule(key);
+				}
+
+				dispatch();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// The watcher was closed
+		}
+	}
+
+	/**
+	 * Returns the time until the next pending repository is due.
+	 *
+	 * @return The time in nanoseconds.
+	 * @since 1.8
+	 */
+	private synchronized long getTimeout() {
+		long timeout = Long.MAX_VALUE;
+
+		long now = System.nanoTime();
+		for (long deadline : pending.values())
+			timeout = Math.min(timeout, Math.max(0, deadline - now));
+
+		return timeout;
+	}
+
+	/**
+	 * Schedules the registered repositories affected by the events of the key,
+	 * this means, their deadlines are postponed by the debounce time.
+	 *
+	 * @param key The watch key.
+	 * @since 1.8
+	 */
+	private synchronized void schedule(WatchKey key) {
+		Path folder = (Path) key.watchable();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounce);
+
+		for (WatchEvent<?> event : key.pollEvents())
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				for (Path repository : states.keySet())
+					if (repository.getParent().equals(folder))
+						pending.put(repository, deadline);
+			} else {
+				Path repository = folder.resolve((Path) event.context());
+				if (states.containsKey(repository))
+					pending.put(repository, deadline);
+			}
+
+		key.reset();
+	}
+
+	/**
+	 * Dispatches the events of the due repositories to the listeners.
+	 *
+	 * @since 1.8
+	 */
+	private void dispatch() {
+		List<Event> events = new ArrayList<>();
+
+		synchronized (this) {
+			long now = System.nanoTime();
+			for (Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<Path, Long> entry = iterator.next();
+				if (entry.getValue() - now <= 0) {
+					iterator.remove();
+
+					Path repository = entry.getKey();
+					State previous = states.get(repository);
+					if (previous != null) {
+						State current = State.observe(repository);
+						states.put(repository, current);
+
+						Kind kind = previous.getKind(current, repository);
+						if (kind != null)
+							events.add(new Event(repository, kind));
+					}
+				}
+			}
+		}
+
+		for (Event event : events)
+			for (Listener listener : listeners)
+				try {
+					listener.changed(event);
+				} catch (RuntimeException e) {
+					// The listener failures do not stop the dispatching
+				}
+	}
+
+	/**
+	 * Defines observed repository states.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	private static class State {
+		/**
+		 * The state of a missing repository.
+		 */
+		private static final State missing = new State(false, -1, -1, 0);
+
+		/**
+		 * True if the repository exists.
+		 */
+		private final boolean isExists;
+
+		/**
+		 * The size.
+		 */
+		private final long size;
+
+		/**
+		 * The last modified time in milliseconds.
+		 */
+		private final long modified;
+
+		/**
+		 * The checksum of the content tail.
+		 */
+		private final long tail;
+
+		/**
+		 * Creates an observed repository state.
+		 *
+		 * @param isExists True if the repository exists.
+		 * @param size     The size.
+		 * @param modified The last modified time in milliseconds.
+		 * @param tail     The checksum of the content tail.
+		 * @since 1.8
+		 */
+		private State(boolean isExists, long size, long modified, long tail) {
+			super();
+
+			this.isExists = isExists;
+			this.size = size;
+			this.modified = modified;
+			this.tail = tail;
+		}
+
+		/**
+		 * Observes the repository.
+		 *
+		 * @param repository The repository.
+		 * @return The observed state.
+		 * @since 1.8
+		 */
+		private static State observe(Path repository) {
+			try {
+				long size = Files.size(repository);
+
+				return new State(true, size, Files.getLastModifiedTime(repository).toMillis(),
+						checksum(repository, size));
+			} catch (IOException e) {
+				return missing;
+			}
+		}
+
+		/**
+		 * Returns the checksum of the content tail ending at given size.
+		 *
+		 * @param repository The repository.
+		 * @param size       The size of the content.
+		 * @return The checksum.
+		 * @throws IOException Throws if the repository can not be read.
+		 * @since 1.8
+		 */
+		private static long checksum(Path repository, long size) throws IOException {
+			long position = Math.max(0, size - tailSize);
+			ByteBuffer buffer = ByteBuffer.allocate((int) (size - position));
+
+			try (FileChannel channel = FileChannel.open(repository, StandardOpenOption.READ)) {
+				while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0)
+					;
+			}
+
+			CRC32 crc = new CRC32();
+			crc.update(buffer.array(), 0, buffer.position());
+
+			return crc.getValue();
+		}
+
+		/**
+		 * Returns the kind of the change to the current state.
+		 *
+		 * @param current    The current state.
+		 * @param repository The repository.
+		 * @return The kind of the change. Null if the repository is unchanged.
+		 * @since 1.8
+		 */
+		private Kind getKind(State current, Path repository) {
+			if (!isExists)
+				return current.isExists ? Kind.created : null;
+			else if (!current.isExists)
+				return Kind.deleted;
+			else if (size == current.size && modified == current.modified && tail == current.tail)
+				return null;
+			else if (current.size > size)
+				try {
+					return checksum(repository, size) == tail ? Kind.appended : Kind.rewritten;
+				} catch (IOException e) {
+					return Kind.rewritten;
+				}
+			else
+				return Kind.rewritten;
+		}
+	}
+
+	/**
+	 * Defines repository change events.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Event {
+		/**
+		 * The repository.
+		 */
+		private final Path repository;
+
+		/**
+		 * The kind.
+		 */
+		private final Kind kind;
+
+		/**
+		 * Creates a repository change event.
+		 *
+		 * @param repository The repository.
+		 * @param kind       The kind.
+		 * @since 1.8
+		 */
+		public Event(Path repository, Kind kind) {
+			super();
+
+			this.repository = repository;
+			this.kind = kind;
+		}
+
+		/**
+		 * Returns the repository.
+		 *
+		 * @return The repository.
+		 * @since 1.8
+		 */
+		public Path getRepository() {
+			return repository;
+		}
+
+		/**
+		 * Returns the kind.
+		 *
+		 * @return The kind.
+		 * @since 1.8
+		 */
+		public Kind getKind() {
+			return kind;
+		}
+	}
+
+	/**
+	 * Defines functional interfaces to listen to repository changes.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	@FunctionalInterface
+	public interface Listener {
+		/**
+		 * Notifies that the repository changed.
+		 *
+		 * @param event The change event.
+		 * @since 1.8
+		 */
+		public void changed(Event event);
+	}
+}
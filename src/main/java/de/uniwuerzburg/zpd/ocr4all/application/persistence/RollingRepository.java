@@ -0,0 +1,821 @@
+/**
+ * File:     RollingRepository.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Defines rolling repositories for tracking entities, for instance, process
+ * and action histories. Instead of a single repository that grows without
+ * bound, the entities are appended to monthly partitions according to their
+ * dates. A small manifest describes the partitions with their date ranges,
+ * such that reads with a date range only touch the relevant partitions. Old
+ * partitions can be compressed in place with gzip and are still readable.
+ *
+ * <p>
+ * The partitions are stored in the folder of the rolling repository and are
+ * named after the repository and their month, for instance,
+ * <code>history-2026-10</code> or <code>history-2026-10.gz</code> if
+ * compressed. The months are evaluated in UTC. Entities without date are
+ * stored in the partition of the current month.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class RollingRepository {
+	/**
+	 * The suffix of the manifest name.
+	 */
+	public static final String manifestSuffix = ".manifest";
+
+	/**
+	 * The format of the partition periods.
+	 */
+	private static final DateTimeFormatter periodFormatter = DateTimeFormatter.ofPattern("yyyy-MM")
+			.withZone(ZoneOffset.UTC);
+
+	/**
+	 * The folder.
+	 */
+	private final Path folder;
+
+	/**
+	 * The repository name.
+	 */
+	private final String name;
+
+	/**
+	 * The pattern of the partition names.
+	 */
+	private final Pattern partitionPattern;
+
+	/**
+	 * The persistence manager for the partitions.
+	 */
+	private final PersistenceManager persistenceManager;
+
+	/**
+	 * The manifest.
+	 */
+	private final Path manifest;
+
+	/**
+	 * The persistence manager for the manifest. The manifest is read, modified
+	 * and rewritten under its file lock, such that concurrent rolling
+	 * repositories, both from this and other processes, do not lose updates.
+	 */
+	private final PersistenceManager manifestManager;
+
+	/**
+	 * Creates a rolling repository.
+	 *
+	 * @param folder The folder.
+	 * @param name   The repository name.
+	 * @param types  The persistence types of the entities.
+	 * @throws IllegalArgumentException Throws if the folder or name is null or
+	 *                                  no types are present.
+	 * @since 1.8
+	 */
+	public RollingRepository(Path folder, String name, Type... types) throws IllegalArgumentException {
+		super();
+
+		if (folder == null || name == null || name.isBlank())
+			throw new IllegalArgumentException("RollingRepository: the folder and name are mandatory.");
+
+		this.folder = folder.normalize();
+		this.name = name.trim();
+
+		partitionPattern = Pattern.compile(Pattern.quote(this.name) + "-(\\d{4}-\\d{2})("
+				+ Pattern.quote(PersistenceManager.compressedSuffix) + ")?");
+
+		persistenceManager = new PersistenceManager(types);
+		manifest = this.folder.resolve(this.name + manifestSuffix);
+		manifestManager = new PersistenceManager(manifest, Type.rolling_partition_v1);
+	}
+
+	/**
+	 * Returns the folder.
+	 *
+	 * @return The folder.
+	 * @since 1.8
+	 */
+	public Path getFolder() {
+		return folder;
+	}
+
+	/**
+	 * Returns the repository name.
+	 *
+	 * @return The repository name.
+	 * @since 1.8
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the period of the date, this means, its month.
+	 *
+	 * @param date The date. If null, the current date is used.
+	 * @return The period.
+	 * @since 1.8
+	 */
+	private static String getPeriod(Date date) {
+		return periodFormatter.format((date == null ? new Date() : date).toInstant());
+	}
+
+	/**
+	 * Returns the partition file.
+	 *
+	 * @param partition The partition.
+	 * @return The partition file.
+	 * @since 1.8
+	 */
+	public Path getPath(Partition partition) {
+		return folder.resolve(name + "-" + partition.getPeriod()
+				+ (partition.isCompressed() ? PersistenceManager.compressedSuffix : ""));
+	}
+
+	/**
+	 * Returns the partitions of the manifest.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The partitions. The key is the period.
+	 * @throws IOException Throws if the manifest can not be read.
+	 * @since 1.8
+	 */
+	private Map<String, Partition> getManifest(PersistenceManager.Message message) throws IOException {
+		return getManifest(manifestManager.getEntities(Partition.class, message));
+	}
+
+	/**
+	 * Returns the partitions of the manifest.
+	 *
+	 * @param persisted The persisted partitions.
+	 * @return The partitions. The key is the period.
+	 * @since 1.8
+	 */
+	private static Map<String, Partition> getManifest(List<Partition> persisted) {
+		Map<String, Partition> partitions = new TreeMap<>();
+		for (Partition partition : persisted)
+			if (partition.getPeriod() != null)
+				partitions.put(partition.getPeriod(), partition);
+
+		return partitions;
+	}
+
+	/**
+	 * Creates the manifest if it does not exist, since only existing manifests
+	 * can be replaced under the file lock.
+	 *
+	 * @throws IOException Throws if the manifest can not be created.
+	 * @since 1.8
+	 */
+	private void createManifest() throws IOException {
+		try {
+			Files.createFile(manifest);
+		} catch (FileAlreadyExistsException e) {
+			// The manifest is available
+		} catch (IOException e) {
+			throw new IOException(
+					"RollingRepository: could not create manifest '" + manifest + "' - " + e.getMessage() + ".");
+		}
+	}
+
+	/**
+	 * Returns the partitions.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The partitions in chronological order.
+	 * @throws IOException Throws if the manifest can not be read.
+	 * @since 1.8
+	 */
+	public synchronized List<Partition> getPartitions(PersistenceManager.Message message) throws IOException {
+		return new ArrayList<>(getManifest(message).values());
+	}
+
+	/**
+	 * Appends the entities to the partitions of their dates.
+	 *
+	 * @param <T>      The entity type.
+	 * @param entities The entities to append.
+	 * @return The number of appended entities.
+	 * @throws IllegalArgumentException Throws if the rolling repository doesn't
+	 *                                  supports the persistence type of the
+	 *                                  given entities.
+	 * @throws IOException              Throws if the entities can not be
+	 *                                  appended.
+	 * @since 1.8
+	 */
+	@SafeVarargs
+	final public synchronized <T extends Tracking> int append(T... entities)
+			throws IllegalArgumentException, IOException {
+		return entities == null ? 0 : append(Arrays.asList(entities));
+	}
+
+	/**
+	 * Appends the entities to the partitions of their dates. A compressed
+	 * partition is decompressed if a backdated entity has to be appended. The
+	 * manifest is locked while the entities are appended, and it is updated with
+	 * the appended entities even if an append fails.
+	 *
+	 * @param <T>      The entity type.
+	 * @param entities The entities to append.
+	 * @return The number of appended entities.
+	 * @throws IllegalArgumentException Throws if the rolling repository doesn't
+	 *                                  supports the persistence type of the
+	 *                                  given entities.
+	 * @throws IOException              Throws if the entities can not be
+	 *                                  appended.
+	 * @since 1.8
+	 */
+	public synchronized <T extends Tracking> int append(Collection<T> entities)
+			throws IllegalArgumentException, IOException {
+		if (entities == null || entities.isEmpty())
+			return 0;
+
+		Map<String, List<T>> periods = new TreeMap<>();
+		for (T entity : entities)
+			if (entity != null)
+				periods.computeIfAbsent(getPeriod(entity.getDate()), key -> new ArrayList<>()).add(entity);
+
+		Files.createDirectories(folder);
+		createManifest();
+
+		final int[] number = { 0 };
+		final Exception[] failure = { null };
+		manifestManager.replace(null, Partition.class, null, persisted -> {
+			Map<String, Partition> partitions = getManifest(persisted);
+
+			try {
+				for (Map.Entry<String, List<T>> period : periods.entrySet()) {
+					Partition partition = partitions.get(period.getKey());
+					if (partition == null) {
+						partition = new Partition(period.getKey());
+						partitions.put(period.getKey(), partition);
+					} else if (partition.isCompressed())
+						decompress(partition);
+
+					int appended = persistenceManager.persist(getPath(partition), true, period.getValue());
+					number[0] += appended;
+
+					partition.records += appended;
+					for (T entity : period.getValue())
+						partition.update(entity.getDate());
+				}
+			} catch (IOException | RuntimeException e) {
+				failure[0] = e;
+			}
+
+			return partitions.values();
+		});
+
+		if (failure[0] instanceof IOException)
+			throw (IOException) failure[0];
+		else if (failure[0] != null)
+			throw (RuntimeException) failure[0];
+
+		return number[0];
+	}
+
+	/**
+	 * Returns the entities whose dates are in the range.
+	 *
+	 * @param from    The inclusive start of the range. If null, the range is
+	 *                unbounded.
+	 * @param to      The exclusive end of the range. If null, the range is
+	 *                unbounded.
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The entities in chronological partition order.
+	 * @throws IOException Throws if the partitions can not be read.
+	 * @since 1.8
+	 */
+	public List<Entity> getEntities(Date from, Date to, PersistenceManager.Message message) throws IOException {
+		List<Entity> entities = new ArrayList<>();
+
+		process(from, to, message, (number, type, entity) -> entities.add(entity));
+
+		return entities;
+	}
+
+	/**
+	 * Processes the entities whose dates are in the range without holding them
+	 * in memory. Only the partitions that overlap the range are read. If a range
+	 * is given, entities without date are skipped. The partitions are read without
+	 * holding the monitor, this means, a partition that was compressed or
+	 * decompressed in the meantime is read from its sibling file.
+	 *
+	 * @param from    The inclusive start of the range. If null, the range is
+	 *                unbounded.
+	 * @param to      The exclusive end of the range. If null, the range is
+	 *                unbounded.
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @param handler The functional interfaces to handle the entities.
+	 * @return The number of handled entities.
+	 * @throws IOException Throws if the partitions can not be read.
+	 * @since 1.8
+	 */
+	public int process(Date from, Date to, PersistenceManager.Message message, PersistenceManager.Handler handler)
+			throws IOException {
+		List<Path> paths = new ArrayList<>();
+		synchronized (this) {
+			for (Partition partition : getManifest(message).values())
+				if (partition.isOverlap(from, to))
+					paths.add(getPath(partition));
+		}
+
+		int[] number = { 0 };
+		boolean[] isStopped = { false };
+		for (Path path : paths) {
+			BufferedReader reader = getReader(path);
+			if (reader == null) {
+				if (message != null)
+					message.warn("the partition '" + path + "' is not available.");
+
+				continue;
+			}
+
+			try (reader) {
+				persistenceManager.process(path, reader, message, (index, type, entity) -> {
+					if (from != null || to != null) {
+						Date date = entity instanceof Tracking ? ((Tracking) entity).getDate() : null;
+
+						if (date == null || (from != null && date.before(from)) || (to != null && !date.before(to)))
+							return true;
+					}
+
+					if (handler.handle(number[0]++, type, entity))
+						return true;
+
+					isStopped[0] = true;
+
+					return false;
+				});
+			} catch (IOException e) {
+				throw new IOException(
+						"RollingRepository: could not read partition '" + path + "' - " + e.getMessage() + ".");
+			}
+
+			if (isStopped[0])
+				break;
+		}
+
+		return number[0];
+	}
+
+	/**
+	 * Returns a reader for the partition file. If the partition file does not
+	 * exist, since the partition was compressed or decompressed in the meantime,
+	 * the reader is opened on its sibling file.
+	 *
+	 * @param path The partition file.
+	 * @return The reader. Null if neither the partition file nor its sibling file
+	 *         exists.
+	 * @throws IOException Throws if the partition file can not be opened.
+	 * @since 1.8
+	 */
+	private static BufferedReader getReader(Path path) throws IOException {
+		String file = path.getFileName().toString();
+		Path sibling = file.endsWith(PersistenceManager.compressedSuffix)
+				? path.resolveSibling(file.substring(0, file.length() - PersistenceManager.compressedSuffix.length()))
+				: path.resolveSibling(file + PersistenceManager.compressedSuffix);
+
+		for (Path candidate : new Path[] { path, sibling })
+			try {
+				return PersistenceManager.getReader(candidate);
+			} catch (NoSuchFileException e) {
+				// Try the sibling file
+			}
+
+		return null;
+	}
+
+	/**
+	 * Compresses the partitions of the months before the given date in place.
+	 * The manifest is locked while the partitions are compressed.
+	 *
+	 * @param before The date. If null, the current date is used, this means, all
+	 *               partitions except the current one are compressed.
+	 * @return The number of compressed partitions.
+	 * @throws IOException Throws if a partition can not be compressed.
+	 * @since 1.8
+	 */
+	public synchronized int compress(Date before) throws IOException {
+		String period = getPeriod(before);
+
+		final int[] number = { 0 };
+		final IOException[] failure = { null };
+		manifestManager.replace(null, Partition.class, null, persisted -> {
+			Map<String, Partition> partitions = getManifest(persisted);
+
+			try {
+				for (Partition partition : partitions.values())
+					if (!partition.isCompressed() && partition.getPeriod().compareTo(period) < 0) {
+						compress(partition);
+
+						number[0]++;
+					}
+			} catch (IOException e) {
+				failure[0] = e;
+			}
+
+			return number[0] > 0 ? partitions.values() : null;
+		});
+
+		if (failure[0] != null)
+			throw failure[0];
+
+		return number[0];
+	}
+
+	/**
+	 * Compresses the partition in place. The manifest is not updated.
+	 *
+	 * @param partition The uncompressed partition.
+	 * @throws IOException Throws if the partition can not be compressed.
+	 * @since 1.8
+	 */
+	private void compress(Partition partition) throws IOException {
+		Path source = getPath(partition);
+		partition.setCompressed(true);
+		Path target = getPath(partition);
+
+		try {
+			if (Files.exists(source)) {
+				Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+				try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+					Files.copy(source, outputStream);
+				}
+
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				Files.delete(source);
+			}
+		} catch (IOException e) {
+			partition.setCompressed(false);
+
+			throw new IOException("RollingRepository: could not compress partition '" + source + "' - "
+					+ e.getMessage() + ".");
+		}
+	}
+
+	/**
+	 * Decompresses the partition in place. The manifest is not updated.
+	 *
+	 * @param partition The compressed partition.
+	 * @throws IOException Throws if the partition can not be decompressed.
+	 * @since 1.8
+	 */
+	private void decompress(Partition partition) throws IOException {
+		Path source = getPath(partition);
+		partition.setCompressed(false);
+		Path target = getPath(partition);
+
+		try {
+			if (Files.exists(source)) {
+				Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+				try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(source))) {
+					Files.copy(inputStream, temporary, StandardCopyOption.REPLACE_EXISTING);
+				}
+
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				Files.delete(source);
+			}
+		} catch (IOException e) {
+			partition.setCompressed(true);
+
+			throw new IOException("RollingRepository: could not decompress partition '" + source + "' - "
+					+ e.getMessage() + ".");
+		}
+	}
+
+	/**
+	 * Rebuilds the manifest from scratch, this means, every partition of the
+	 * folder is read while the manifest is locked.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The number of partitions.
+	 * @throws IOException Throws if the folder can not be read or the manifest can
+	 *                     not be written.
+	 * @since 1.8
+	 */
+	public synchronized int rebuild(PersistenceManager.Message message) throws IOException {
+		createManifest();
+
+		final int[] number = { 0 };
+		manifestManager.replace(null, Partition.class, null, persisted -> {
+			Map<String, Partition> partitions = scan(message);
+			number[0] = partitions.size();
+
+			return partitions.values();
+		});
+
+		return number[0];
+	}
+
+	/**
+	 * Returns the partitions of the folder.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The partitions. The key is the period.
+	 * @throws IOException Throws if the folder can not be read.
+	 * @since 1.8
+	 */
+	private Map<String, Partition> scan(PersistenceManager.Message message) throws IOException {
+		Map<String, Partition> partitions = new TreeMap<>();
+
+		if (Files.isDirectory(folder))
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, name + "-*")) {
+				for (Path path : stream) {
+					Matcher matcher = partitionPattern.matcher(path.getFileName().toString());
+					if (!matcher.matches())
+						continue;
+
+					Partition partition = new Partition(matcher.group(1));
+					partition.setCompressed(matcher.group(2) != null);
+
+					if (partitions.containsKey(partition.getPeriod())) {
+						if (message != null)
+							message.warn("the partition " + partition.getPeriod()
+									+ " is available compressed and uncompressed, ignoring the compressed one.");
+
+						if (partition.isCompressed())
+							continue;
+					}
+
+					persistenceManager.process(path, message, (number, type, entity) -> {
+						partition.records++;
+
+						if (entity instanceof Tracking)
+							partition.update(((Tracking) entity).getDate());
+
+						return true;
+					});
+
+					partitions.put(partition.getPeriod(), partition);
+				}
+			}
+
+		return partitions;
+	}
+
+	/**
+	 * Migrates the entities of a single repository to the rolling repository.
+	 * The source repository is not modified.
+	 *
+	 * @param repository The source repository.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The number of migrated entities.
+	 * @throws IOException Throws if the source repository can not be read or the
+	 *                     entities can not be appended.
+	 * @since 1.8
+	 */
+	public synchronized int migrate(Path repository, PersistenceManager.Message message) throws IOException {
+		List<Tracking> entities = new ArrayList<>();
+		persistenceManager.process(repository, message, (number, type, entity) -> {
+			if (entity instanceof Tracking)
+				entities.add((Tracking) entity);
+			else if (message != null)
+				message.warn("the entity " + (number + 1) + " of type " + type.name()
+						+ " is not a tracking and can not be migrated.");
+
+			return true;
+		});
+
+		return append(entities);
+	}
+
+	/**
+	 * Defines partitions of rolling repositories.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Partition extends Entity {
+		/**
+		 * The serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The period, this means, the month in the format yyyy-MM.
+		 */
+		private String period = null;
+
+		/**
+		 * The number of records.
+		 */
+		private long records = 0;
+
+		/**
+		 * The date of the earliest record. Null if not available.
+		 */
+		private Date first = null;
+
+		/**
+		 * The date of the latest record. Null if not available.
+		 */
+		private Date last = null;
+
+		/**
+		 * True if the partition is compressed.
+		 */
+		private boolean isCompressed = false;
+
+		/**
+		 * Default constructor for a partition.
+		 *
+		 * @since 1.8
+		 */
+		public Partition() {
+			super();
+		}
+
+		/**
+		 * Creates an empty partition.
+		 *
+		 * @param period The period, this means, the month in the format yyyy-MM.
+		 * @since 1.8
+		 */
+		public Partition(String period) {
+			super();
+
+			this.period = period;
+		}
+
+		/**
+		 * Extends the date range of the partition.
+		 *
+		 * @param date The record date. If null, the date range is not changed.
+		 * @since 1.8
+		 */
+		private void update(Date date) {
+			if (date != null) {
+				if (first == null || date.before(first))
+					first = date;
+
+				if (last == null || date.after(last))
+					last = date;
+			}
+		}
+
+		/**
+		 * Returns true if the partition overlaps the range. Partitions without date
+		 * range only overlap unbounded ranges.
+		 *
+		 * @param from The inclusive start of the range. If null, the range is
+		 *             unbounded.
+		 * @param to   The exclusive end of the range. If null, the range is
+		 *             unbounded.
+		 * @return True if the partition overlaps the range.
+		 * @since 1.8
+		 */
+		private boolean isOverlap(Date from, Date to) {
+			if (from == null && to == null)
+				return true;
+			else if (first == null || last == null)
+				return false;
+			else
+				return (from == null || !last.before(from)) && (to == null || first.before(to));
+		}
+
+		/**
+		 * Returns the period, this means, the month in the format yyyy-MM.
+		 *
+		 * @return The period.
+		 * @since 1.8
+		 */
+		public String getPeriod() {
+			return period;
+		}
+
+		/**
+		 * Set the period, this means, the month in the format yyyy-MM.
+		 *
+		 * @param period The period to set.
+		 * @since 1.8
+		 */
+		public void setPeriod(String period) {
+			this.period = period;
+		}
+
+		/**
+		 * Returns the number of records.
+		 *
+		 * @return The number of records.
+		 * @since 1.8
+		 */
+		public long getRecords() {
+			return records;
+		}
+
+		/**
+		 * Set the number of records.
+		 *
+		 * @param records The number of records to set.
+		 * @since 1.8
+		 */
+		public void setRecords(long records) {
+			this.records = records;
+		}
+
+		/**
+		 * Returns the date of the earliest record.
+		 *
+		 * @return The date of the earliest record. Null if not available.
+		 * @since 1.8
+		 */
+		public Date getFirst() {
+			return first;
+		}
+
+		/**
+		 * Set the date of the earliest record.
+		 *
+		 * @param first The date to set.
+		 * @since 1.8
+		 */
+		public void setFirst(Date first) {
+			this.first = first;
+		}
+
+		/**
+		 * Returns the date of the latest record.
+		 *
+		 * @return The date of the latest record. Null if not available.
+		 * @since 1.8
+		 */
+		public Date getLast() {
+			return last;
+		}
+
+		/**
+		 * Set the date of the latest record.
+		 *
+		 * @param last The date to set.
+		 * @since 1.8
+		 */
+		public void setLast(Date last) {
+			this.last = last;
+		}
+
+		/**
+		 * Returns true if the partition is compressed.
+		 *
+		 * @return True if the partition is compressed.
+		 * @since 1.8
+		 */
+		@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+		public boolean isCompressed() {
+			return isCompressed;
+		}
+
+		/**
+		 * Set to true if the partition is compressed.
+		 *
+		 * @param isCompressed The compressed flag to set.
+		 * @since 1.8
+		 */
+		public void setCompressed(boolean isCompressed) {
+			this.isCompressed = isCompressed;
+		}
+	}
+}
@@ -9,6 +9,8 @@ package de.uniwuerzburg.zpd.ocr4all.application.persistence;
 
 import java.util.Date;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Defines tracking for entities.
  *
@@ -32,6 +34,12 @@ public class Tracking extends Entity {
 	 */
 	private String user = null;
 
+	/**
+	 * The version stamp. It is incremented whenever the entity is persisted to a
+	 * truncated repository and is omitted from the repository while it is 0.
+	 */
+	private long version = 0;
+
 	/**
 	 * Default constructor for a tracking of an entity.
 	 * 
@@ -94,4 +102,25 @@ public class Tracking extends Entity {
 	public void setUser(String user) {
 		this.user = user == null || user.isBlank() ? null : user.trim();
 	}
+
+	/**
+	 * Returns the version stamp.
+	 *
+	 * @return The version stamp.
+	 * @since 1.8
+	 */
+	@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Set the version stamp.
+	 *
+	 * @param version The version stamp to set.
+	 * @since 1.8
+	 */
+	public void setVersion(long version) {
+		this.version = version;
+	}
 }
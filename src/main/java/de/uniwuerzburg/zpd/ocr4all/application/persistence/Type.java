@@ -8,13 +8,17 @@
 package de.uniwuerzburg.zpd.ocr4all.application.persistence;
 
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.folio.Folio;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.job.JobStateIndex;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.job.ProcessHistory;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.ActionHistory;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.Project;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.ProjectCatalog;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox.Snapshot;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox.SnapshotIndex;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.repository.Container;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.repository.Repository;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox.Sandbox;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.ArgumentStore;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.DisabledServiceProvider;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.LazyInitializedServiceProvider;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.TaskExecutorServiceProvider;
@@ -33,16 +37,20 @@ public enum Type {
 	folio_v1(Folio.class),
 
 	job_process_v1(de.uniwuerzburg.zpd.ocr4all.application.persistence.job.Process.class),
-	job_process_history_v1(ProcessHistory.class),
+	job_process_history_v1(ProcessHistory.class), job_state_index_v1(JobStateIndex.Entry.class),
 
 	project_v1(Project.class), project_sandbox_v1(Sandbox.class), project_sandbox_snapshot_v1(Snapshot.class),
-	project_action_history_v1(ActionHistory.class),
+	project_sandbox_snapshot_index_v1(SnapshotIndex.Entry.class),
+	project_action_history_v1(ActionHistory.class), project_catalog_v1(ProjectCatalog.Entry.class),
 
 	repository_v1(Repository.class), repository_container_v1(Container.class),
 
+	rolling_partition_v1(RollingRepository.Partition.class),
+
 	service_provider_disabled_v1(DisabledServiceProvider.class),
 	service_provider_lazy_initialized_v1(LazyInitializedServiceProvider.class),
 	service_provider_task_executor_v1(TaskExecutorServiceProvider.class),
+	service_provider_arguments_v1(ArgumentStore.Entry.class),
 
 	workflow_v1(Workflow.class), workflow_metadata_v1(Metadata.class), workflow_view_v1(View.class);
 
@@ -0,0 +1,733 @@
+/**
+ * File:     FolioTable.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.folio
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.folio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.util.ImageFormat;
+
+/**
+ * Defines immutable, columnar folio tables. The folio fields are held in
+ * parallel primitive arrays and the strings in a shared string table, such
+ * that large folio collections can be kept in memory with a few objects. The
+ * folios are materialized on demand.
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class FolioTable {
+	/**
+	 * Defines dimensions, this means, the folio size and the sizes of the folios
+	 * derivatives quality images.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public enum Dimension {
+		/**
+		 * The folio size
+		 */
+		size,
+		/**
+		 * The size for folios derivatives quality thumbnail
+		 */
+		thumbnail,
+		/**
+		 * The size for folios derivatives quality detail
+		 */
+		detail,
+		/**
+		 * The size for folios derivatives quality best
+		 */
+		best
+	}
+
+	/**
+	 * The index value for null.
+	 */
+	private static final int none = -1;
+
+	/**
+	 * The date value for null.
+	 */
+	private static final long noDate = Long.MIN_VALUE;
+
+	/**
+	 * The presence flag of the derivatives.
+	 */
+	private static final int derivativesPresence = 1 << Dimension.values().length;
+
+	/**
+	 * The presence flag of the keywords.
+	 */
+	private static final int keywordsPresence = derivativesPresence << 1;
+
+	/**
+	 * The formats.
+	 */
+	private static final ImageFormat[] imageFormats = ImageFormat.values();
+
+	/**
+	 * The PAGE XML types.
+	 */
+	private static final Folio.PageXMLType[] pageXMLTypeValues = Folio.PageXMLType.values();
+
+	/**
+	 * The number of folios.
+	 */
+	private final int size;
+
+	/**
+	 * The shared string table.
+	 */
+	private final String[] strings;
+
+	/**
+	 * The string table indices of the ids.
+	 */
+	private final int[] ids;
+
+	/**
+	 * The string table indices of the names.
+	 */
+	private final int[] names;
+
+	/**
+	 * The string table indices of the users.
+	 */
+	private final int[] users;
+
+	/**
+	 * The dates in milliseconds since the epoch.
+	 */
+	private final long[] dates;
+
+	/**
+	 * The version stamps.
+	 */
+	private final long[] versions;
+
+	/**
+	 * The format ordinals.
+	 */
+	private final byte[] formats;
+
+	/**
+	 * The PAGE XML type ordinals.
+	 */
+	private final byte[] pageXMLTypes;
+
+	/**
+	 * The widths and heights of the dimensions. Every folio holds two values for
+	 * every dimension.
+	 */
+	private final int[] dimensions;
+
+	/**
+	 * The presence flags of the dimensions, the derivatives and the keywords.
+	 */
+	private final byte[] presences;
+
+	/**
+	 * The offsets of the folio keywords in the keywords array. The keywords of the
+	 * folio i are in the range from keywordOffsets[i] inclusive to
+	 * keywordOffsets[i+1] exclusive.
+	 */
+	private final int[] keywordOffsets;
+
+	/**
+	 * The string table indices of the keywords.
+	 */
+	private final int[] keywords;
+
+	/**
+	 * The folio indices. The key is the folio id. It is built on demand.
+	 */
+	private volatile Map<String, Integer> indices = null;
+
+	/**
+	 * Creates a folio table.
+	 *
+	 * @param folios The folios.
+	 * @since 1.8
+	 */
+	public FolioTable(Collection<Folio> folios) {
+		this(build(folios));
+	}
+
+	/**
+	 * Creates a folio table.
+	 *
+	 * @param builder The builder.
+	 * @since 1.8
+	 */
+	private FolioTable(Builder builder) {
+		super();
+
+		size = builder.size;
+		strings = builder.strings.toArray(new String[0]);
+
+		ids = Arrays.copyOf(builder.ids, size);
+		names = Arrays.copyOf(builder.names, size);
+		users = Arrays.copyOf(builder.users, size);
+		dates = Arrays.copyOf(builder.dates, size);
+		versions = Arrays.copyOf(builder.versions, size);
+		formats = Arrays.copyOf(builder.formats, size);
+		pageXMLTypes = Arrays.copyOf(builder.pageXMLTypes, size);
+		dimensions = Arrays.copyOf(builder.dimensions, 2 * Dimension.values().length * size);
+		presences = Arrays.copyOf(builder.presences, size);
+		keywordOffsets = Arrays.copyOf(builder.keywordOffsets, size + 1);
+		keywords = Arrays.copyOf(builder.keywords, builder.keywordsLength);
+	}
+
+	/**
+	 * Returns a builder holding the folios.
+	 *
+	 * @param folios The folios.
+	 * @return The builder.
+	 * @since 1.8
+	 */
+	private static Builder build(Collection<Folio> folios) {
+		Builder builder = new Builder();
+
+		if (folios != null)
+			for (Folio folio : folios)
+				builder.add(folio);
+
+		return builder;
+	}
+
+	/**
+	 * Loads the folio table from the folio repository. The folios are added to the
+	 * table as soon as they are parsed, this means, the repository is not
+	 * materialized as folio list.
+	 *
+	 * @param persistenceManager The persistence manager. It must support the folio
+	 *                           type.
+	 * @param repository         The folio repository. If null, the default
+	 *                           repository of the persistence manager is used.
+	 * @param message            The functional interfaces to account for warning
+	 *                           messages. If null, ignore warning messages.
+	 * @return The folio table.
+	 * @throws NullPointerException Throws if the no repository is defined.
+	 * @throws IOException          Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public static FolioTable load(PersistenceManager persistenceManager, Path repository,
+			PersistenceManager.Message message) throws NullPointerException, IOException {
+		Builder builder = new Builder();
+
+		persistenceManager.process(repository, message, (number, type, entity) -> {
+			if (Type.folio_v1.equals(type))
+				builder.add((Folio) entity);
+
+			return true;
+		});
+
+		return new FolioTable(builder);
+	}
+
+	/**
+	 * Returns the number of folios.
+	 *
+	 * @return The number of folios.
+	 * @since 1.8
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if the table contains no folios.
+	 *
+	 * @return True if the table contains no folios.
+	 * @since 1.8
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the string of the string table.
+	 *
+	 * @param index The string table index.
+	 * @return The string. Null if the index is not set.
+	 * @since 1.8
+	 */
+	private String getString(int index) {
+		return index == none ? null : strings[index];
+	}
+
+	/**
+	 * Returns the index of the folio with given id.
+	 *
+	 * @param id The folio id.
+	 * @return The index of the folio. -1 if the table does not contain the folio.
+	 * @since 1.8
+	 */
+	public int indexOf(String id) {
+		Map<String, Integer> indices = this.indices;
+		if (indices == null) {
+			indices = new HashMap<>();
+			for (int i = 0; i < size; i++)
+				if (ids[i] != none)
+					indices.putIfAbsent(strings[ids[i]], i);
+
+			this.indices = indices;
+		}
+
+		Integer index = id == null ? null : indices.get(id);
+
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Returns the id of the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The id.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public String getId(int index) throws IndexOutOfBoundsException {
+		return getString(ids[index]);
+	}
+
+	/**
+	 * Returns the name of the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The name.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public String getName(int index) throws IndexOutOfBoundsException {
+		return getString(names[index]);
+	}
+
+	/**
+	 * Returns the user of the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The user.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public String getUser(int index) throws IndexOutOfBoundsException {
+		return getString(users[index]);
+	}
+
+	/**
+	 * Returns the date of the folio in milliseconds since the epoch.
+	 *
+	 * @param index The folio index.
+	 * @return The date in milliseconds since the epoch. Long.MIN_VALUE if the
+	 *         date is not set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public long getTime(int index) throws IndexOutOfBoundsException {
+		return dates[index];
+	}
+
+	/**
+	 * Returns the date of the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The date. Null if not set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public Date getDate(int index) throws IndexOutOfBoundsException {
+		return dates[index] == noDate ? null : new Date(dates[index]);
+	}
+
+	/**
+	 * Returns the version stamp of the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The version stamp. 0 if the folio has not been stamped.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public long getVersion(int index) throws IndexOutOfBoundsException {
+		return versions[index];
+	}
+
+	/**
+	 * Returns the format of the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The format. Null if not set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public ImageFormat getFormat(int index) throws IndexOutOfBoundsException {
+		return formats[index] == none ? null : imageFormats[formats[index]];
+	}
+
+	/**
+	 * Returns the PAGE XML type of the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The PAGE XML type. Null if not set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public Folio.PageXMLType getPageXMLType(int index) throws IndexOutOfBoundsException {
+		return pageXMLTypes[index] == none ? null : pageXMLTypeValues[pageXMLTypes[index]];
+	}
+
+	/**
+	 * Returns true if the dimension of the folio is set.
+	 *
+	 * @param index     The folio index.
+	 * @param dimension The dimension.
+	 * @return True if the dimension is set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public boolean isDimension(int index, Dimension dimension) throws IndexOutOfBoundsException {
+		return (presences[index] & (1 << dimension.ordinal())) != 0;
+	}
+
+	/**
+	 * Returns the width of the dimension of the folio.
+	 *
+	 * @param index     The folio index.
+	 * @param dimension The dimension.
+	 * @return The width. 0 if the dimension is not set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public int getWidth(int index, Dimension dimension) throws IndexOutOfBoundsException {
+		return dimensions[2 * (Dimension.values().length * index + dimension.ordinal())];
+	}
+
+	/**
+	 * Returns the height of the dimension of the folio.
+	 *
+	 * @param index     The folio index.
+	 * @param dimension The dimension.
+	 * @return The height. 0 if the dimension is not set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public int getHeight(int index, Dimension dimension) throws IndexOutOfBoundsException {
+		return dimensions[2 * (Dimension.values().length * index + dimension.ordinal()) + 1];
+	}
+
+	/**
+	 * Returns the size of the dimension of the folio.
+	 *
+	 * @param index     The folio index.
+	 * @param dimension The dimension.
+	 * @return The size. Null if the dimension is not set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	private Folio.Size getSize(int index, Dimension dimension) throws IndexOutOfBoundsException {
+		return isDimension(index, dimension) ? new Folio.Size(getWidth(index, dimension), getHeight(index, dimension))
+				: null;
+	}
+
+	/**
+	 * Returns true if the folio contains the keyword.
+	 *
+	 * @param index   The folio index.
+	 * @param keyword The keyword. It is expected to be normalized.
+	 * @return True if the folio contains the keyword.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public boolean isKeyword(int index, String keyword) throws IndexOutOfBoundsException {
+		if (keyword != null)
+			for (int i = keywordOffsets[index]; i < keywordOffsets[index + 1]; i++)
+				if (strings[keywords[i]].equals(keyword))
+					return true;
+
+		return false;
+	}
+
+	/**
+	 * Returns the keywords of the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The keywords. Null if not set.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public Set<String> getKeywords(int index) throws IndexOutOfBoundsException {
+		if ((presences[index] & keywordsPresence) == 0)
+			return null;
+
+		Set<String> keywords = new HashSet<>();
+		for (int i = keywordOffsets[index]; i < keywordOffsets[index + 1]; i++)
+			keywords.add(strings[this.keywords[i]]);
+
+		return keywords;
+	}
+
+	/**
+	 * Materializes the folio.
+	 *
+	 * @param index The folio index.
+	 * @return The folio.
+	 * @throws IndexOutOfBoundsException Throws if the index is out of range.
+	 * @since 1.8
+	 */
+	public Folio getFolio(int index) throws IndexOutOfBoundsException {
+		Folio folio = new Folio(getDate(index), getUser(index), getKeywords(index), getId(index), getName(index),
+				getFormat(index), getSize(index, Dimension.size),
+				(presences[index] & derivativesPresence) == 0 ? null
+						: new Folio.Derivatives(getSize(index, Dimension.thumbnail),
+								getSize(index, Dimension.detail), getSize(index, Dimension.best)),
+				getPageXMLType(index));
+
+		folio.setVersion(versions[index]);
+
+		return folio;
+	}
+
+	/**
+	 * Materializes the folios in the given range.
+	 *
+	 * @param from The index of the first folio inclusive.
+	 * @param to   The index of the last folio exclusive.
+	 * @return The folios.
+	 * @throws IndexOutOfBoundsException Throws if the range is out of bounds.
+	 * @since 1.8
+	 */
+	public List<Folio> getFolios(int from, int to) throws IndexOutOfBoundsException {
+		if (from < 0 || to > size || from > to)
+			throw new IndexOutOfBoundsException("FolioTable: range [" + from + ", " + to + ") out of bounds for size "
+					+ size + ".");
+
+		List<Folio> folios = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++)
+			folios.add(getFolio(i));
+
+		return folios;
+	}
+
+	/**
+	 * Materializes all folios.
+	 *
+	 * @return The folios.
+	 * @since 1.8
+	 */
+	public List<Folio> getFolios() {
+		return getFolios(0, size);
+	}
+
+	/**
+	 * Defines builders to collect folios in growable columns.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	private static class Builder {
+		/**
+		 * The number of folios.
+		 */
+		private int size = 0;
+
+		/**
+		 * The string table.
+		 */
+		private final List<String> strings = new ArrayList<>();
+
+		/**
+		 * The string table indices. The key is the string.
+		 */
+		private final Map<String, Integer> stringIndices = new HashMap<>();
+
+		/**
+		 * The string table indices of the ids.
+		 */
+		private int[] ids = new int[16];
+
+		/**
+		 * The string table indices of the names.
+		 */
+		private int[] names = new int[16];
+
+		/**
+		 * The string table indices of the users.
+		 */
+		private int[] users = new int[16];
+
+		/**
+		 * The dates in milliseconds since the epoch.
+		 */
+		private long[] dates = new long[16];
+
+		/**
+		 * The version stamps.
+		 */
+		private long[] versions = new long[16];
+
+		/**
+		 * The format ordinals.
+		 */
+		private byte[] formats = new byte[16];
+
+		/**
+		 * The PAGE XML type ordinals.
+		 */
+		private byte[] pageXMLTypes = new byte[16];
+
+		/**
+		 * The widths and heights of the dimensions.
+		 */
+		private int[] dimensions = new int[2 * Dimension.values().length * 16];
+
+		/**
+		 * The presence flags of the dimensions, the derivatives and the keywords.
+		 */
+		private byte[] presences = new byte[16];
+
+		/**
+		 * The offsets of the folio keywords.
+		 */
+		private int[] keywordOffsets = new int[17];
+
+		/**
+		 * The string table indices of the keywords.
+		 */
+		private int[] keywords = new int[16];
+
+		/**
+		 * The number of keywords.
+		 */
+		private int keywordsLength = 0;
+
+		/**
+		 * Returns the string table index of the string. The string is added to the
+		 * table if required.
+		 *
+		 * @param value The string.
+		 * @return The string table index. -1 if the string is null.
+		 * @since 1.8
+		 */
+		private int index(String value) {
+			if (value == null)
+				return none;
+
+			Integer index = stringIndices.get(value);
+			if (index == null) {
+				index = strings.size();
+
+				strings.add(value);
+				stringIndices.put(value, index);
+			}
+
+			return index;
+		}
+
+		/**
+		 * Ensures the capacity of the columns for one more folio.
+		 *
+		 * @since 1.8
+		 */
+		private void ensureCapacity() {
+			if (size == ids.length) {
+				int capacity = 2 * ids.length;
+
+				ids = Arrays.copyOf(ids, capacity);
+				names = Arrays.copyOf(names, capacity);
+				users = Arrays.copyOf(users, capacity);
+				dates = Arrays.copyOf(dates, capacity);
+				versions = Arrays.copyOf(versions, capacity);
+				formats = Arrays.copyOf(formats, capacity);
+				pageXMLTypes = Arrays.copyOf(pageXMLTypes, capacity);
+				dimensions = Arrays.copyOf(dimensions, 2 * Dimension.values().length * capacity);
+				presences = Arrays.copyOf(presences, capacity);
+				keywordOffsets = Arrays.copyOf(keywordOffsets, capacity + 1);
+			}
+		}
+
+		/**
+		 * Set the dimension of the current folio.
+		 *
+		 * @param dimension The dimension.
+		 * @param value     The size.
+		 * @since 1.8
+		 */
+		private void setDimension(Dimension dimension, Folio.Size value) {
+			if (value != null) {
+				int offset = 2 * (Dimension.values().length * size + dimension.ordinal());
+
+				dimensions[offset] = value.getWidth();
+				dimensions[offset + 1] = value.getHeight();
+				presences[size] |= 1 << dimension.ordinal();
+			}
+		}
+
+		/**
+		 * Adds the folio.
+		 *
+		 * @param folio The folio. Null folios are ignored.
+		 * @since 1.8
+		 */
+		private void add(Folio folio) {
+			if (folio == null)
+				return;
+
+			ensureCapacity();
+
+			ids[size] = index(folio.getId());
+			names[size] = index(folio.getName());
+			users[size] = index(folio.getUser());
+			dates[size] = folio.getDate() == null ? noDate : folio.getDate().getTime();
+			versions[size] = folio.getVersion();
+			formats[size] = (byte) (folio.getFormat() == null ? none : folio.getFormat().ordinal());
+			pageXMLTypes[size] = (byte) (folio.getPageXMLType() == null ? none : folio.getPageXMLType().ordinal());
+
+			presences[size] = 0;
+			setDimension(Dimension.size, folio.getSize());
+			if (folio.getDerivatives() != null) {
+				presences[size] |= derivativesPresence;
+
+				setDimension(Dimension.thumbnail, folio.getDerivatives().getThumbnail());
+				setDimension(Dimension.detail, folio.getDerivatives().getDetail());
+				setDimension(Dimension.best, folio.getDerivatives().getBest());
+			}
+
+			keywordOffsets[size] = keywordsLength;
+			if (folio.getKeywords() != null) {
+				presences[size] |= keywordsPresence;
+
+				for (String keyword : folio.getKeywords()) {
+					if (keywordsLength == keywords.length)
+						keywords = Arrays.copyOf(keywords, 2 * keywords.length);
+
+					keywords[keywordsLength++] = index(keyword);
+				}
+			}
+
+			size++;
+			keywordOffsets[size] = keywordsLength;
+		}
+	}
+}
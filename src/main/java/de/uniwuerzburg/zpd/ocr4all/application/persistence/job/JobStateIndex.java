@@ -0,0 +1,707 @@
+/**
+ * File:     JobStateIndex.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.job
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.job;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Entity;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Tracking;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+
+/**
+ * Defines job state indices. The index maps every process state to the
+ * processes in this state, such that, for instance, the scheduled and running
+ * processes can be recovered after a restart without reading every process
+ * repository. The index can be registered as listener on the persistence
+ * manager of the processes to be updated on every process persist and to veto
+ * persists with invalid state transitions, for instance, from completed to
+ * running.
+ *
+ * <p>
+ * The process repositories are located below the jobs folder and have the
+ * same name. The process id is the path of the process repository relative to
+ * the jobs folder, using slashes as separators.
+ * </p>
+ *
+ * <p>
+ * The index is updated incrementally, this means, an entry is appended when
+ * the state of a process changes and the last entry of a process is effective.
+ * Obsolete entries are compacted when they outnumber the effective ones. The
+ * compaction re-reads the index repository under its file lock, such that the
+ * entries appended by other index instances are kept. It never runs within the
+ * listener callbacks, thus an index that is only updated as listener has to be
+ * compacted explicitly with {@link #compact()}. The effective entries are kept
+ * in memory and refreshed on compaction. The state transitions are validated
+ * strictly for locked updates of the process repositories, since concurrent
+ * unlocked persists of the same process are not serialized.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class JobStateIndex implements PersistenceManager.Listener {
+	/**
+	 * The default index repository name.
+	 */
+	public static final String defaultIndexName = ".job_state_index";
+
+	/**
+	 * The jobs folder.
+	 */
+	private final Path folder;
+
+	/**
+	 * The name of the process repositories.
+	 */
+	private final String name;
+
+	/**
+	 * The persistence manager for the index repository.
+	 */
+	private final PersistenceManager indexManager;
+
+	/**
+	 * The persistence manager for the process repositories.
+	 */
+	private final PersistenceManager processManager = new PersistenceManager(Type.job_process_v1);
+
+	/**
+	 * The effective index entries. The key is the process id. Null if the index
+	 * is not loaded yet.
+	 */
+	private Map<String, Entry> entries = null;
+
+	/**
+	 * The process ids by state.
+	 */
+	private final Map<Process.State, Set<String>> states = new EnumMap<>(Process.State.class);
+
+	/**
+	 * The number of entries in the index repository.
+	 */
+	private int rows = 0;
+
+	/**
+	 * Creates a job state index. The index repository is stored in the jobs
+	 * folder with default name.
+	 *
+	 * @param folder The jobs folder.
+	 * @param name   The name of the process repositories.
+	 * @throws IllegalArgumentException Throws if the folder or name is null.
+	 * @since 1.8
+	 */
+	public JobStateIndex(Path folder, String name) throws IllegalArgumentException {
+		this(folder == null ? null : folder.resolve(defaultIndexName), folder, name);
+	}
+
+	/**
+	 * Creates a job state index.
+	 *
+	 * @param index  The index repository.
+	 * @param folder The jobs folder.
+	 * @param name   The name of the process repositories.
+	 * @throws IllegalArgumentException Throws if the index, folder or name is
+	 *                                  null.
+	 * @since 1.8
+	 */
+	public JobStateIndex(Path index, Path folder, String name) throws IllegalArgumentException {
+		super();
+
+		if (index == null || folder == null || name == null || name.isBlank())
+			throw new IllegalArgumentException("JobStateIndex: the index, folder and name are mandatory.");
+
+		this.folder = folder.normalize();
+		this.name = name.trim();
+
+		indexManager = new PersistenceManager(index, Type.job_state_index_v1);
+
+		for (Process.State state : Process.State.values())
+			states.put(state, new LinkedHashSet<>());
+	}
+
+	/**
+	 * Returns the jobs folder.
+	 *
+	 * @return The jobs folder.
+	 * @since 1.8
+	 */
+	public Path getFolder() {
+		return folder;
+	}
+
+	/**
+	 * Returns the process repository.
+	 *
+	 * @param id The process id.
+	 * @return The process repository.
+	 * @since 1.8
+	 */
+	public Path getRepository(String id) {
+		return folder.resolve(id);
+	}
+
+	/**
+	 * Returns the process id of the repository.
+	 *
+	 * @param repository The repository.
+	 * @return The process id. Null if the repository is not a process repository
+	 *         of the jobs folder.
+	 * @since 1.8
+	 */
+	public String getId(Path repository) {
+		if (repository == null)
+			return null;
+
+		repository = repository.normalize();
+		if (!repository.startsWith(folder) || repository.equals(folder)
+				|| !name.equals(repository.getFileName().toString()))
+			return null;
+
+		StringBuilder id = new StringBuilder();
+		for (Path path : folder.relativize(repository)) {
+			if (id.length() > 0)
+				id.append("/");
+
+			id.append(path.toString());
+		}
+
+		return id.toString();
+	}
+
+	/**
+	 * Loads the index if it is not loaded yet.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @throws IOException Throws if the index can not be read.
+	 * @since 1.8
+	 */
+	private void load(PersistenceManager.Message message) throws IOException {
+		if (entries != null)
+			return;
+
+		List<Entry> persisted = indexManager.getEntities(Entry.class, message);
+
+		set(getEffective(persisted), persisted.size());
+	}
+
+	/**
+	 * Returns the effective index entries, this means, the last entry of every
+	 * process that is not removed.
+	 *
+	 * @param persisted The persisted index entries in repository order.
+	 * @return The effective index entries. The key is the process id.
+	 * @since 1.8
+	 */
+	private static Map<String, Entry> getEffective(List<Entry> persisted) {
+		Map<String, Entry> entries = new LinkedHashMap<>();
+		for (Entry entry : persisted)
+			if (entry.getId() != null) {
+				if (entry.isRemoved() || entry.getState() == null)
+					entries.remove(entry.getId());
+				else
+					entries.put(entry.getId(), entry);
+			}
+
+		return entries;
+	}
+
+	/**
+	 * Sets the effective index entries.
+	 *
+	 * @param entries The effective index entries. The key is the process id.
+	 * @param rows    The number of entries in the index repository.
+	 * @since 1.8
+	 */
+	private void set(Map<String, Entry> entries, int rows) {
+		this.entries = entries;
+		this.rows = rows;
+
+		for (Set<String> ids : states.values())
+			ids.clear();
+
+		for (Entry entry : entries.values())
+			states.get(entry.getState()).add(entry.getId());
+	}
+
+	/**
+	 * Compacts the index repository if obsolete entries outnumber the effective
+	 * ones. The index repository is exclusively locked by a file lock while it is
+	 * read and rewritten, such that the entries appended concurrently by other
+	 * index instances are not lost. The effective entries are refreshed from the
+	 * index repository.
+	 *
+	 * @throws IOException Throws if the index can not be read or written.
+	 * @since 1.8
+	 */
+	public synchronized void compact() throws IOException {
+		indexManager.replace(null, Entry.class, null, persisted -> {
+			Map<String, Entry> effective = getEffective(persisted);
+
+			set(effective, persisted.size());
+
+			if (rows <= 2 * effective.size())
+				return null;
+
+			rows = effective.size();
+
+			return effective.values();
+		});
+	}
+
+	/**
+	 * Compacts the index repository if the appended entries suggest that
+	 * obsolete entries outnumber the effective ones.
+	 *
+	 * @throws IOException Throws if the index can not be read or written.
+	 * @since 1.8
+	 */
+	private void compactIfRequired() throws IOException {
+		if (rows > 2 * entries.size())
+			compact();
+	}
+
+	/**
+	 * Returns the effective index entries.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The effective index entries.
+	 * @throws IOException Throws if the index can not be read.
+	 * @since 1.8
+	 */
+	public synchronized List<Entry> getEntries(PersistenceManager.Message message) throws IOException {
+		load(message);
+
+		return new ArrayList<>(entries.values());
+	}
+
+	/**
+	 * Returns the indexed state of the process.
+	 *
+	 * @param id      The process id.
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The indexed state. Null if the process is not indexed.
+	 * @throws IOException Throws if the index can not be read.
+	 * @since 1.8
+	 */
+	public synchronized Process.State getState(String id, PersistenceManager.Message message) throws IOException {
+		load(message);
+
+		Entry entry = entries.get(id);
+
+		return entry == null ? null : entry.getState();
+	}
+
+	/**
+	 * Returns the ids of the processes in the given states.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @param states  The states.
+	 * @return The process ids.
+	 * @throws IOException Throws if the index can not be read.
+	 * @since 1.8
+	 */
+	public synchronized Set<String> getIds(PersistenceManager.Message message, Process.State... states)
+			throws IOException {
+		load(message);
+
+		Set<String> ids = new LinkedHashSet<>();
+		if (states != null)
+			for (Process.State state : states)
+				if (state != null)
+					ids.addAll(this.states.get(state));
+
+		return ids;
+	}
+
+	/**
+	 * Returns the repositories of the processes in the given states.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @param states  The states.
+	 * @return The process repositories.
+	 * @throws IOException Throws if the index can not be read.
+	 * @since 1.8
+	 */
+	public List<Path> getRepositories(PersistenceManager.Message message, Process.State... states)
+			throws IOException {
+		List<Path> repositories = new ArrayList<>();
+		for (String id : getIds(message, states))
+			repositories.add(getRepository(id));
+
+		return repositories;
+	}
+
+	/**
+	 * Returns true if the indexed process can change to the given state.
+	 *
+	 * @param id    The process id.
+	 * @param state The target state.
+	 * @return True if the process is not indexed or the transition is allowed.
+	 * @throws IOException Throws if the index can not be read.
+	 * @since 1.8
+	 */
+	public synchronized boolean isTransition(String id, Process.State state) throws IOException {
+		Process.State current = getState(id, null);
+
+		return current == null || current.isTransition(state);
+	}
+
+	/**
+	 * Updates the index entry of the process and compacts the index repository
+	 * if required.
+	 *
+	 * @param id      The process id.
+	 * @param process The process. If null, the entry is removed.
+	 * @throws IllegalStateException Throws if the state transition is not
+	 *                               allowed.
+	 * @throws IOException           Throws if the index can not be read or
+	 *                               written.
+	 * @since 1.8
+	 */
+	public synchronized void update(String id, Process process) throws IllegalStateException, IOException {
+		if (append(id, process))
+			compactIfRequired();
+	}
+
+	/**
+	 * Appends the index entry of the process if its state changed. The index
+	 * repository is not compacted.
+	 *
+	 * @param id      The process id.
+	 * @param process The process. If null, the entry is removed.
+	 * @return True if an entry was appended.
+	 * @throws IllegalStateException Throws if the state transition is not
+	 *                               allowed.
+	 * @throws IOException           Throws if the index can not be read or
+	 *                               written.
+	 * @since 1.8
+	 */
+	private synchronized boolean append(String id, Process process) throws IllegalStateException, IOException {
+		if (id == null)
+			return false;
+
+		load(null);
+
+		Entry current = entries.get(id);
+
+		if (process == null || process.getState() == null) {
+			if (current == null)
+				return false;
+
+			indexManager.persist(true, new Entry(id));
+
+			entries.remove(id);
+			states.get(current.getState()).remove(id);
+		} else {
+			if (current != null) {
+				if (!current.getState().isTransition(process.getState()))
+					throw new IllegalStateException("JobStateIndex: the process '" + id
+							+ "' can not change from state " + current.getState().name() + " to "
+							+ process.getState().name() + ".");
+
+				if (current.getState() == process.getState())
+					return false;
+			}
+
+			Entry entry = new Entry(id, process);
+			indexManager.persist(true, entry);
+
+			entries.put(id, entry);
+			if (current != null)
+				states.get(current.getState()).remove(id);
+			states.get(entry.getState()).add(id);
+		}
+
+		rows++;
+
+		return true;
+	}
+
+	/**
+	 * Removes the index entry of the process.
+	 *
+	 * @param id The process id.
+	 * @throws IOException Throws if the index can not be read or written.
+	 * @since 1.8
+	 */
+	public void remove(String id) throws IOException {
+		update(id, null);
+	}
+
+	/**
+	 * Returns the first process of the entities.
+	 *
+	 * @param entities The entities.
+	 * @return The first process. Null if not available.
+	 * @since 1.8
+	 */
+	private static Process getProcess(List<Entity> entities) {
+		for (Entity entity : entities)
+			if (entity instanceof Process)
+				return (Process) entity;
+
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager.
+	 * Listener#persisting(java.nio.file.Path, boolean, java.util.List)
+	 */
+	@Override
+	public void persisting(Path repository, boolean isAppend, List<Entity> entities) throws IOException {
+		String id = getId(repository);
+		if (id != null && !isAppend) {
+			Process process = getProcess(entities);
+
+			if (process != null && process.getState() != null) {
+				Process.State current = getState(id, null);
+
+				if (current != null && !current.isTransition(process.getState()))
+					throw new IOException("JobStateIndex: the process '" + id + "' can not change from state "
+							+ current.name() + " to " + process.getState().name() + ".");
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager.
+	 * Listener#persisted(java.nio.file.Path, boolean, java.util.List)
+	 */
+	@Override
+	public void persisted(Path repository, boolean isAppend, List<Entity> entities) throws IOException {
+		String id = getId(repository);
+		if (id != null && !isAppend) {
+			Process process = getProcess(entities);
+
+			if (process != null)
+				try {
+					append(id, process);
+				} catch (IllegalStateException e) {
+					throw new IOException(e.getMessage());
+				}
+		}
+	}
+
+	/**
+	 * Rebuilds the index from scratch, this means, every process repository of
+	 * the jobs folder is read.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The number of index entries.
+	 * @throws IOException Throws if the jobs folder can not be read or the index
+	 *                     can not be written.
+	 * @since 1.8
+	 */
+	public synchronized int rebuild(PersistenceManager.Message message) throws IOException {
+		List<Path> repositories;
+		try (Stream<Path> stream = Files.walk(folder)) {
+			repositories = stream.filter(path -> name.equals(path.getFileName().toString()))
+					.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+
+		Map<String, Entry> entries = new LinkedHashMap<>();
+		for (Path repository : repositories) {
+			String id = getId(repository);
+
+			if (id != null)
+				try {
+					Process process = processManager.getEntity(Type.job_process_v1, Process.class, repository,
+							message);
+					if (process != null && process.getState() != null)
+						entries.put(id, new Entry(id, process));
+				} catch (IOException e) {
+					if (message != null)
+						message.warn(e.getMessage());
+				}
+		}
+
+		set(entries, indexManager.persist(entries.values()));
+
+		return this.entries.size();
+	}
+
+	/**
+	 * Defines job state index entries.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Entry extends Tracking {
+		/**
+		 * The serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The process id.
+		 */
+		private String id = null;
+
+		/**
+		 * The state.
+		 */
+		private Process.State state = null;
+
+		/**
+		 * The updated time.
+		 */
+		private Date updated = null;
+
+		/**
+		 * True if the process was removed.
+		 */
+		private boolean isRemoved = false;
+
+		/**
+		 * Default constructor for a job state index entry.
+		 *
+		 * @since 1.8
+		 */
+		public Entry() {
+			super();
+		}
+
+		/**
+		 * Creates a job state index entry for a removed process.
+		 *
+		 * @param id The process id.
+		 * @since 1.8
+		 */
+		public Entry(String id) {
+			super(new Date(), null);
+
+			this.id = id;
+
+			isRemoved = true;
+		}
+
+		/**
+		 * Creates a job state index entry.
+		 *
+		 * @param id      The process id.
+		 * @param process The process.
+		 * @since 1.8
+		 */
+		public Entry(String id, Process process) {
+			super(process.getDate(), process.getUser());
+
+			this.id = id;
+
+			state = process.getState();
+			updated = process.getUpdated();
+		}
+
+		/**
+		 * Returns the process id.
+		 *
+		 * @return The process id.
+		 * @since 1.8
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Set the process id.
+		 *
+		 * @param id The process id to set.
+		 * @since 1.8
+		 */
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		/**
+		 * Returns the state.
+		 *
+		 * @return The state.
+		 * @since 1.8
+		 */
+		public Process.State getState() {
+			return state;
+		}
+
+		/**
+		 * Set the state.
+		 *
+		 * @param state The state to set.
+		 * @since 1.8
+		 */
+		public void setState(Process.State state) {
+			this.state = state;
+		}
+
+		/**
+		 * Returns the updated time.
+		 *
+		 * @return The updated time.
+		 * @since 1.8
+		 */
+		public Date getUpdated() {
+			return updated;
+		}
+
+		/**
+		 * Set the updated time.
+		 *
+		 * @param updated The updated time to set.
+		 * @since 1.8
+		 */
+		public void setUpdated(Date updated) {
+			this.updated = updated;
+		}
+
+		/**
+		 * Returns true if the process was removed.
+		 *
+		 * @return True if the process was removed.
+		 * @since 1.8
+		 */
+		@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+		public boolean isRemoved() {
+			return isRemoved;
+		}
+
+		/**
+		 * Set to true if the process was removed.
+		 *
+		 * @param isRemoved The removed flag to set.
+		 * @since 1.8
+		 */
+		public void setRemoved(boolean isRemoved) {
+			this.isRemoved = isRemoved;
+		}
+	}
+}
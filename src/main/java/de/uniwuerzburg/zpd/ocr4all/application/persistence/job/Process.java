@@ -57,7 +57,47 @@ public class Process extends Tracking {
 		/**
 		 * Interrupted state
 		 */
-		interrupted
+		interrupted;
+
+		/**
+		 * Returns true if the state is final, this means, the process is done and
+		 * its state can not change anymore.
+		 *
+		 * @return True if the state is final.
+		 * @since 1.8
+		 */
+		public boolean isFinal() {
+			return this == completed || this == canceled || this == interrupted;
+		}
+
+		/**
+		 * Returns true if the process can change from this state to the given one.
+		 * Staying in the same state is always allowed. Processes are scheduled
+		 * and run once, this means, a final state can not be left, a process has
+		 * to run to complete, although it can be canceled or interrupted before,
+		 * and a running process can not be scheduled or initialized again.
+		 *
+		 * @param state The target state.
+		 * @return True if the transition is allowed.
+		 * @since 1.8
+		 */
+		public boolean isTransition(State state) {
+			if (state == null)
+				return false;
+			else if (this == state)
+				return true;
+
+			switch (this) {
+			case initialized:
+				return state == scheduled || state == running || state == canceled || state == interrupted;
+			case scheduled:
+				return state == running || state == canceled || state == interrupted;
+			case running:
+				return state.isFinal();
+			default:
+				return false;
+			}
+		}
 	}
 
 	/**
@@ -0,0 +1,682 @@
+/**
+ * File:     ProcessHistoryAggregator.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.job
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.job;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+
+/**
+ * Defines aggregators for process history repositories. The records are
+ * grouped by selected fields and the count as well as the minimum, maximum,
+ * sum and average of selected numeric fields are computed per group, for
+ * instance, the runs per service provider or the canceled runs per user and
+ * week. The records are not deserialized, this means, the repositories are
+ * streamed and only the selected fields are extracted at the token level.
+ * Several repositories are aggregated concurrently. Compressed repositories,
+ * for instance, old partitions of rolling repositories, are read
+ * transparently.
+ *
+ * <p>
+ * The fields are addressed by their JSON names. The fields of nested objects
+ * are separated by dots, for instance, <code>service-provider.id</code> or
+ * <code>instance.name</code>. Missing fields are grouped as null and are
+ * ignored by the numeric aggregates.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class ProcessHistoryAggregator {
+	/**
+	 * The default maximal number of threads if no executor service is supplied.
+	 */
+	public static final int defaultThreads = 16;
+
+	/**
+	 * The JSON factory to create the token parsers.
+	 */
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	/**
+	 * Defines periods to group timestamps, this means, fields holding
+	 * milliseconds since the epoch, such as the date. The periods are evaluated
+	 * in UTC and weeks start on Monday.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public enum Period {
+		day, week, month, year;
+
+		/**
+		 * Returns the label of the period that contains the timestamp.
+		 *
+		 * @param timestamp The timestamp in milliseconds since the epoch.
+		 * @return The label of the period, this means, the ISO date of its first
+		 *         day for days and weeks, the year and month for months and the
+		 *         year for years.
+		 * @since 1.8
+		 */
+		public String getLabel(long timestamp) {
+			LocalDate date = Instant.ofEpochMilli(timestamp).atZone(ZoneOffset.UTC).toLocalDate();
+
+			switch (this) {
+			case week:
+				return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toString();
+			case month:
+				return date.toString().substring(0, 7);
+			case year:
+				return String.valueOf(date.getYear());
+			default:
+				return date.toString();
+			}
+		}
+	}
+
+	/**
+	 * The group fields.
+	 */
+	private final List<String> groups;
+
+	/**
+	 * The periods of the group fields. A null element groups the field by its
+	 * value.
+	 */
+	private final List<Period> periods;
+
+	/**
+	 * The numeric fields to aggregate.
+	 */
+	private final List<String> measures;
+
+	/**
+	 * The selected fields, this means, the group and numeric fields.
+	 */
+	private final Set<String> fields = new HashSet<>();
+
+	/**
+	 * The prefixes of the selected nested fields, this means, the objects that
+	 * have to be descended.
+	 */
+	private final Set<String> prefixes = new HashSet<>();
+
+	/**
+	 * The executor service to read the repositories. Null if a thread pool is
+	 * created for every aggregation.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Creates an aggregator that creates a thread pool for every aggregation.
+	 *
+	 * @param groups   The group fields. If null or empty, all records are
+	 *                 aggregated in a single group.
+	 * @param measures The numeric fields to aggregate. If null, only the records
+	 *                 are counted.
+	 * @throws IllegalArgumentException Throws if a field is null or blank.
+	 * @since 1.8
+	 */
+	public ProcessHistoryAggregator(List<String> groups, List<String> measures) throws IllegalArgumentException {
+		this(groups, null, measures, null);
+	}
+
+	/**
+	 * Creates an aggregator.
+	 *
+	 * @param groups   The group fields. If null or empty, all records are
+	 *                 aggregated in a single group.
+	 * @param periods  The periods of the group fields in the same order. A null
+	 *                 element or missing elements group the fields by their
+	 *                 values. If null, all fields are grouped by their values.
+	 * @param measures The numeric fields to aggregate. If null, only the records
+	 *                 are counted.
+	 * @param executor The executor service to read the repositories. It is not
+	 *                 shut down by the aggregator. If null, a thread pool is
+	 *                 created for every aggregation.
+	 * @throws IllegalArgumentException Throws if a field is null or blank.
+	 * @since 1.8
+	 */
+	public ProcessHistoryAggregator(List<String> groups, List<Period> periods, List<String> measures,
+			ExecutorService executor) throws IllegalArgumentException {
+		super();
+
+		this.groups = groups == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(groups));
+		this.measures = measures == null ? Collections.emptyList()
+				: Collections.unmodifiableList(new ArrayList<>(measures));
+
+		List<Period> normalized = new ArrayList<>();
+		for (int i = 0; i < this.groups.size(); i++)
+			normalized.add(periods == null || i >= periods.size() ? null : periods.get(i));
+		this.periods = Collections.unmodifiableList(normalized);
+
+		for (String field : this.groups)
+			select(field);
+		for (String field : this.measures)
+			select(field);
+
+		this.executor = executor;
+	}
+
+	/**
+	 * Selects the field, this means, the field and its parent objects are
+	 * registered.
+	 *
+	 * @param field The field.
+	 * @throws IllegalArgumentException Throws if the field is null or blank.
+	 * @since 1.8
+	 */
+	private void select(String field) throws IllegalArgumentException {
+		if (field == null || field.isBlank())
+			throw new IllegalArgumentException("ProcessHistoryAggregator: the fields must not be null or blank.");
+
+		fields.add(field);
+
+		for (int index = field.indexOf('.'); index > 0; index = field.indexOf('.', index + 1))
+			prefixes.add(field.substring(0, index));
+	}
+
+	/**
+	 * Returns the group fields.
+	 *
+	 * @return The group fields.
+	 * @since 1.8
+	 */
+	public List<String> getGroups() {
+		return groups;
+	}
+
+	/**
+	 * Returns the numeric fields to aggregate.
+	 *
+	 * @return The numeric fields.
+	 * @since 1.8
+	 */
+	public List<String> getMeasures() {
+		return measures;
+	}
+
+	/**
+	 * Aggregates the process history records of the repositories concurrently.
+	 *
+	 * @param repositories The process history repositories.
+	 * @return The aggregation result.
+	 * @throws InterruptedException Throws if the current thread was interrupted
+	 *                              while waiting.
+	 * @since 1.8
+	 */
+	public Result aggregate(Collection<Path> repositories) throws InterruptedException {
+		Result result = new Result();
+		if (repositories == null || repositories.isEmpty())
+			return result;
+
+		ExecutorService executor = this.executor == null
+				? Executors.newFixedThreadPool(Math.min(defaultThreads, repositories.size()))
+				: this.executor;
+		try {
+			Map<Path, Future<Result>> futures = new LinkedHashMap<>();
+			for (Path repository : repositories)
+				futures.put(repository, executor.submit(() -> aggregate(repository)));
+
+			for (Map.Entry<Path, Future<Result>> entry : futures.entrySet())
+				try {
+					result.merge(entry.getValue().get());
+				} catch (ExecutionException | CancellationException e) {
+					Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+
+					result.warnings.add("ProcessHistoryAggregator: could not aggregate repository '"
+							+ entry.getKey() + "' - " + cause.getMessage() + ".");
+				}
+		} finally {
+			if (this.executor == null)
+				executor.shutdownNow();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Aggregates the process history records of the repository.
+	 *
+	 * @param repository The process history repository.
+	 * @return The aggregation result of the repository.
+	 * @since 1.8
+	 */
+	private Result aggregate(Path repository) {
+		Result result = new Result();
+		String prefix = Type.job_process_history_v1.name() + "\t";
+
+		Map<String, String> texts = new LinkedHashMap<>();
+		Map<String, Double> numbers = new LinkedHashMap<>();
+
+		try (BufferedReader reader = PersistenceManager.getReader(repository)) {
+			String line;
+			int number = 0;
+			while ((line = reader.readLine()) != null) {
+				number++;
+
+				line = line.trim();
+				if (!line.startsWith(prefix))
+					continue;
+
+				texts.clear();
+				numbers.clear();
+				try (JsonParser parser = jsonFactory.createParser(line.substring(prefix.length()))) {
+					if (parser.nextToken() != JsonToken.START_OBJECT)
+						throw new IOException("not a JSON object");
+
+					scan(parser, null, texts, numbers);
+				} catch (IOException e) {
+					result.warnings.add("ProcessHistoryAggregator: troubles parsing line " + number
+							+ " of repository '" + repository + "' - " + e.getMessage() + ".");
+
+					continue;
+				}
+
+				result.add(getKey(texts, numbers), numbers);
+			}
+		} catch (IOException e) {
+			result.warnings.add("ProcessHistoryAggregator: could not read repository '" + repository + "' - "
+					+ e.getMessage() + ".");
+		}
+
+		return result;
+	}
+
+	/**
+	 * Extracts the selected fields of the JSON object. The parser is positioned
+	 * at the start of the object and is positioned at its end on return.
+	 *
+	 * @param parser  The parser.
+	 * @param parent  The name of the object. Null if it is the record.
+	 * @param texts   The extracted values as text. The key is the field.
+	 * @param numbers The extracted numeric values. The key is the field.
+	 * @throws IOException Throws if the object can not be parsed.
+	 * @since 1.8
+	 */
+	private void scan(JsonParser parser, String parent, Map<String, String> texts, Map<String, Double> numbers)
+			throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parent == null ? parser.getCurrentName() : parent + "." + parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+
+			if (token == JsonToken.START_OBJECT && prefixes.contains(field))
+				scan(parser, field, texts, numbers);
+			else if (fields.contains(field) && token.isScalarValue()) {
+				if (token != JsonToken.VALUE_NULL)
+					texts.put(field, parser.getText());
+
+				if (token.isNumeric())
+					numbers.put(field, parser.getDoubleValue());
+			} else
+				parser.skipChildren();
+		}
+	}
+
+	/**
+	 * Returns the group key of the record.
+	 *
+	 * @param texts   The extracted values as text. The key is the field.
+	 * @param numbers The extracted numeric values. The key is the field.
+	 * @return The group key.
+	 * @since 1.8
+	 */
+	private List<String> getKey(Map<String, String> texts, Map<String, Double> numbers) {
+		if (groups.isEmpty())
+			return Collections.emptyList();
+
+		String[] key = new String[groups.size()];
+		for (int i = 0; i < key.length; i++) {
+			String field = groups.get(i);
+			Period period = periods.get(i);
+
+			key[i] = period == null || !numbers.containsKey(field) ? texts.get(field)
+					: period.getLabel(numbers.get(field).longValue());
+		}
+
+		return Arrays.asList(key);
+	}
+
+	/**
+	 * Defines aggregation results.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public class Result {
+		/**
+		 * The groups in order of appearance. The key is the group key.
+		 */
+		private final Map<List<String>, Group> groups = new LinkedHashMap<>();
+
+		/**
+		 * The number of aggregated records.
+		 */
+		private long records = 0;
+
+		/**
+		 * The warnings.
+		 */
+		private final List<String> warnings = new ArrayList<>();
+
+		/**
+		 * Creates an empty aggregation result.
+		 *
+		 * @since 1.8
+		 */
+		private Result() {
+			super();
+		}
+
+		/**
+		 * Adds the record.
+		 *
+		 * @param key     The group key.
+		 * @param numbers The extracted numeric values. The key is the field.
+		 * @since 1.8
+		 */
+		private void add(List<String> key, Map<String, Double> numbers) {
+			records++;
+
+			Group group = groups.computeIfAbsent(key, k -> new Group(k));
+			group.count++;
+
+			for (int i = 0; i < measures.size(); i++) {
+				Double value = numbers.get(measures.get(i));
+				if (value != null)
+					group.statistics[i].add(value);
+			}
+		}
+
+		/**
+		 * Merges the given result into this one.
+		 *
+		 * @param result The result to merge.
+		 * @since 1.8
+		 */
+		private void merge(Result result) {
+			records += result.records;
+			warnings.addAll(result.warnings);
+
+			for (Group source : result.groups.values()) {
+				Group target = groups.get(source.key);
+
+				if (target == null)
+					groups.put(source.key, source);
+				else {
+					target.count += source.count;
+
+					for (int i = 0; i < target.statistics.length; i++)
+						target.statistics[i].merge(source.statistics[i]);
+				}
+			}
+		}
+
+		/**
+		 * Returns the groups.
+		 *
+		 * @return The groups in order of appearance.
+		 * @since 1.8
+		 */
+		public List<Group> getGroups() {
+			return new ArrayList<>(groups.values());
+		}
+
+		/**
+		 * Returns the group.
+		 *
+		 * @param key The group key, this means, the values of the group fields
+		 *            in order.
+		 * @return The group. Null if no record belongs to the group.
+		 * @since 1.8
+		 */
+		public Group getGroup(String... key) {
+			return groups.get(Arrays.asList(key));
+		}
+
+		/**
+		 * Returns the number of aggregated records.
+		 *
+		 * @return The number of aggregated records.
+		 * @since 1.8
+		 */
+		public long getRecords() {
+			return records;
+		}
+
+		/**
+		 * Returns the warnings.
+		 *
+		 * @return The warnings.
+		 * @since 1.8
+		 */
+		public List<String> getWarnings() {
+			return warnings;
+		}
+	}
+
+	/**
+	 * Defines aggregated groups.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public class Group {
+		/**
+		 * The group key, this means, the values of the group fields in order.
+		 */
+		private final List<String> key;
+
+		/**
+		 * The number of records.
+		 */
+		private long count = 0;
+
+		/**
+		 * The statistics of the numeric fields in order.
+		 */
+		private final Statistics[] statistics;
+
+		/**
+		 * Creates an aggregated group.
+		 *
+		 * @param key The group key.
+		 * @since 1.8
+		 */
+		private Group(List<String> key) {
+			super();
+
+			this.key = key;
+
+			statistics = new Statistics[measures.size()];
+			for (int i = 0; i < statistics.length; i++)
+				statistics[i] = new Statistics();
+		}
+
+		/**
+		 * Returns the group key, this means, the values of the group fields in
+		 * order.
+		 *
+		 * @return The group key. The values of missing fields are null.
+		 * @since 1.8
+		 */
+		public List<String> getKey() {
+			return key;
+		}
+
+		/**
+		 * Returns the number of records.
+		 *
+		 * @return The number of records.
+		 * @since 1.8
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the statistics of the numeric field.
+		 *
+		 * @param field The numeric field.
+		 * @return The statistics. Null if the field is not aggregated.
+		 * @since 1.8
+		 */
+		public Statistics getStatistics(String field) {
+			int index = measures.indexOf(field);
+
+			return index < 0 ? null : statistics[index];
+		}
+	}
+
+	/**
+	 * Defines statistics of numeric fields.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Statistics {
+		/**
+		 * The number of values.
+		 */
+		private long count = 0;
+
+		/**
+		 * The sum.
+		 */
+		private double sum = 0;
+
+		/**
+		 * The minimum.
+		 */
+		private double minimum = Double.NaN;
+
+		/**
+		 * The maximum.
+		 */
+		private double maximum = Double.NaN;
+
+		/**
+		 * Creates empty statistics.
+		 *
+		 * @since 1.8
+		 */
+		private Statistics() {
+			super();
+		}
+
+		/**
+		 * Adds the value.
+		 *
+		 * @param value The value.
+		 * @since 1.8
+		 */
+		private void add(double value) {
+			minimum = count == 0 ? value : Math.min(minimum, value);
+			maximum = count == 0 ? value : Math.max(maximum, value);
+			sum += value;
+			count++;
+		}
+
+		/**
+		 * Merges the given statistics into this one.
+		 *
+		 * @param statistics The statistics to merge.
+		 * @since 1.8
+		 */
+		private void merge(Statistics statistics) {
+			if (statistics.count == 0)
+				return;
+
+			minimum = count == 0 ? statistics.minimum : Math.min(minimum, statistics.minimum);
+			maximum = count == 0 ? statistics.maximum : Math.max(maximum, statistics.maximum);
+			sum += statistics.sum;
+			count += statistics.count;
+		}
+
+		/**
+		 * Returns the number of values.
+		 *
+		 * @return The number of values.
+		 * @since 1.8
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the sum.
+		 *
+		 * @return The sum.
+		 * @since 1.8
+		 */
+		public double getSum() {
+			return sum;
+		}
+
+		/**
+		 * Returns the minimum.
+		 *
+		 * @return The minimum. NaN if no value is available.
+		 * @since 1.8
+		 */
+		public double getMinimum() {
+			return minimum;
+		}
+
+		/**
+		 * Returns the maximum.
+		 *
+		 * @return The maximum. NaN if no value is available.
+		 * @since 1.8
+		 */
+		public double getMaximum() {
+			return maximum;
+		}
+
+		/**
+		 * Returns the average.
+		 *
+		 * @return The average. NaN if no value is available.
+		 * @since 1.8
+		 */
+		public double getAverage() {
+			return count == 0 ? Double.NaN : sum / count;
+		}
+	}
+}
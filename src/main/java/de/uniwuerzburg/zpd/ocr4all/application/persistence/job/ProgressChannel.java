@@ -0,0 +1,381 @@
+/**
+ * File:     ProgressChannel.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.job
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.job;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+
+/**
+ * Defines progress channels for processes. Workers hand their process to the
+ * channel on every progress update instead of persisting it. The channel keeps
+ * the latest process of every repository in memory, serves reads from memory
+ * and persists the processes whose progress changed at a fixed rate. A state
+ * change is persisted immediately, such that the repositories always reflect
+ * the current state of the processes. The channel releases a process as soon as
+ * its final state is persisted.
+ *
+ * <p>
+ * The processes are persisted with the persistence manager of the channel,
+ * this means, its listeners are notified. The process repositories only
+ * contain the process, as if the workers persisted it themselves.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class ProgressChannel implements Closeable {
+	/**
+	 * The default flush interval in milliseconds.
+	 */
+	public static final long defaultInterval = 2000;
+
+	/**
+	 * The time in milliseconds to wait for a running periodic flush when the
+	 * channel is closed.
+	 */
+	private static final long terminationTimeout = 60000;
+
+	/**
+	 * The persistence manager for the process repositories.
+	 */
+	private final PersistenceManager persistenceManager;
+
+	/**
+	 * The functional interfaces to account for warning messages of the periodic
+	 * flushes. Null if the messages are ignored.
+	 */
+	private final PersistenceManager.Message message;
+
+	/**
+	 * The pending processes. The key is the repository.
+	 */
+	private final Map<Path, Pending> pendings = new ConcurrentHashMap<>();
+
+	/**
+	 * The scheduler for the periodic flushes.
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Creates a progress channel with default flush interval and a dedicated
+	 * persistence manager.
+	 *
+	 * @param message The functional interfaces to account for warning messages
+	 *                of the periodic flushes. If null, ignore warning messages.
+	 * @since 1.8
+	 */
+	public ProgressChannel(PersistenceManager.Message message) {
+		this(null, defaultInterval, message);
+	}
+
+	/**
+	 * Creates a progress channel.
+	 *
+	 * @param persistenceManager The persistence manager for the process
+	 *                           repositories. It must support the process type.
+	 *                           If null, a dedicated persistence manager is
+	 *                           used.
+	 * @param interval           The flush interval in milliseconds. If not
+	 *                           positive, the default flush interval is used.
+	 * @param message            The functional interfaces to account for warning
+	 *                           messages of the periodic flushes. If null, ignore
+	 *                           warning messages.
+	 * @since 1.8
+	 */
+	public ProgressChannel(PersistenceManager persistenceManager, long interval, PersistenceManager.Message message) {
+		super();
+
+		this.persistenceManager = persistenceManager == null ? new PersistenceManager(Type.job_process_v1)
+				: persistenceManager;
+		this.message = message;
+
+		if (interval <= 0)
+			interval = defaultInterval;
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "progress-channel");
+			thread.setDaemon(true);
+
+			return thread;
+		});
+		scheduler.scheduleAtFixedRate(this::flushPeriodically, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Updates the process of the repository. If the state of the process changed
+	 * since it was persisted by the channel, the process is persisted
+	 * immediately. Otherwise, it is persisted with the next flush. If the
+	 * immediate persist fails, for instance, it is vetoed by a listener, the
+	 * channel keeps the process it held before. A process in a final state is
+	 * released once it is persisted.
+	 *
+	 * @param repository The process repository.
+	 * @param process    The process. The same instance should be used for all
+	 *                   updates of the repository.
+	 * @throws IllegalArgumentException Throws if the repository or process is
+	 *                                  null.
+	 * @throws IllegalStateException    Throws if the channel is closed.
+	 * @throws IOException              Throws if the process can not be
+	 *                                  persisted.
+	 * @since 1.8
+	 */
+	public void update(Path repository, Process process)
+			throws IllegalArgumentException, IllegalStateException, IOException {
+		if (repository == null || process == null)
+			throw new IllegalArgumentException("ProgressChannel: the repository and process are mandatory.");
+
+		if (scheduler.isShutdown())
+			throw new IllegalStateException("ProgressChannel: the channel is closed.");
+
+		Pending pending = pendings.computeIfAbsent(repository.normalize(), key -> new Pending(key));
+		synchronized (pending) {
+			if (pending.isPersisted && pending.state == process.getState()) {
+				pending.process = process;
+				pending.isDirty = true;
+			} else {
+				pending.flush(process);
+
+				if (process.getState() != null && process.getState().isFinal())
+					pendings.remove(pending.repository, pending);
+			}
+		}
+	}
+
+	/**
+	 * Returns the latest process of the repository. It is read from the
+	 * repository if the channel does not hold it.
+	 *
+	 * @param repository The process repository.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The latest process. Null if not available.
+	 * @throws IOException Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public Process getProcess(Path repository, PersistenceManager.Message message) throws IOException {
+		if (repository == null)
+			return null;
+
+		Pending pending = pendings.get(repository.normalize());
+		if (pending != null)
+			synchronized (pending) {
+				if (pending.process != null)
+					return pending.process;
+			}
+
+		return persistenceManager.getEntity(Type.job_process_v1, Process.class, repository, message);
+	}
+
+	/**
+	 * Returns true if the channel holds progress of the repository that is not
+	 * persisted yet.
+	 *
+	 * @param repository The process repository.
+	 * @return True if the channel holds progress that is not persisted yet.
+	 * @since 1.8
+	 */
+	public boolean isPending(Path repository) {
+		Pending pending = repository == null ? null : pendings.get(repository.normalize());
+		if (pending == null)
+			return false;
+
+		synchronized (pending) {
+			return pending.isDirty;
+		}
+	}
+
+	/**
+	 * Persists the pending progress of the repository.
+	 *
+	 * @param repository The process repository.
+	 * @throws IOException Throws if the process can not be persisted.
+	 * @since 1.8
+	 */
+	public void flush(Path repository) throws IOException {
+		Pending pending = repository == null ? null : pendings.get(repository.normalize());
+		if (pending != null)
+			synchronized (pending) {
+				pending.flush();
+			}
+	}
+
+	/**
+	 * Persists the pending progress of all repositories.
+	 *
+	 * @return The warnings of the processes that could not be persisted. Empty
+	 *         if all were persisted.
+	 * @since 1.8
+	 */
+	public List<String> flush() {
+		List<String> warnings = new ArrayList<>();
+
+		for (Pending pending : pendings.values())
+			synchronized (pending) {
+				try {
+					pending.flush();
+				} catch (IOException e) {
+					warnings.add(e.getMessage());
+				}
+			}
+
+		return warnings;
+	}
+
+	/**
+	 * Persists the pending progress of all repositories and accounts for the
+	 * warnings. This method is called periodically by the scheduler.
+	 *
+	 * @since 1.8
+	 */
+	private void flushPeriodically() {
+		List<String> warnings = flush();
+
+		if (message != null)
+			for (String warning : warnings)
+				message.warn(warning);
+	}
+
+	/**
+	 * Persists the pending progress of the repository and releases its process,
+	 * for instance, when the process is done.
+	 *
+	 * @param repository The process repository.
+	 * @throws IOException Throws if the process can not be persisted. The process
+	 *                     is released nevertheless.
+	 * @since 1.8
+	 */
+	public void remove(Path repository) throws IOException {
+		Pending pending = repository == null ? null : pendings.remove(repository.normalize());
+		if (pending != null)
+			synchronized (pending) {
+				pending.flush();
+			}
+	}
+
+	/**
+	 * Returns the number of repositories held by the channel.
+	 *
+	 * @return The number of repositories.
+	 * @since 1.8
+	 */
+	public int size() {
+		return pendings.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		// let a running periodic flush complete before the final flush
+		scheduler.shutdown();
+		try {
+			scheduler.awaitTermination(terminationTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		List<String> warnings = flush();
+		pendings.clear();
+
+		if (!warnings.isEmpty())
+			throw new IOException("ProgressChannel: could not persist " + warnings.size() + " processes - "
+					+ warnings.get(0));
+	}
+
+	/**
+	 * Defines pending processes. The instances are used as monitors for their
+	 * updates and flushes.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	private class Pending {
+		/**
+		 * The process repository.
+		 */
+		private final Path repository;
+
+		/**
+		 * The latest process. Null if not available.
+		 */
+		private Process process = null;
+
+		/**
+		 * True if the latest process is not persisted yet.
+		 */
+		private boolean isDirty = false;
+
+		/**
+		 * True if the process was persisted by the channel.
+		 */
+		private boolean isPersisted = false;
+
+		/**
+		 * The state of the process that was persisted last by the channel.
+		 */
+		private Process.State state = null;
+
+		/**
+		 * Creates a pending process.
+		 *
+		 * @param repository The process repository.
+		 * @since 1.8
+		 */
+		private Pending(Path repository) {
+			super();
+
+			this.repository = repository;
+		}
+
+		/**
+		 * Persists the latest process if it is dirty. The caller has to hold the
+		 * monitor of this instance.
+		 *
+		 * @throws IOException Throws if the process can not be persisted.
+		 * @since 1.8
+		 */
+		private void flush() throws IOException {
+			if (isDirty && process != null)
+				flush(process);
+		}
+
+		/**
+		 * Persists the given process and holds it as latest process if it was
+		 * persisted. Otherwise, the pending process is left unchanged. The caller
+		 * has to hold the monitor of this instance.
+		 *
+		 * @param process The process.
+		 * @throws IOException Throws if the process can not be persisted.
+		 * @since 1.8
+		 */
+		private void flush(Process process) throws IOException {
+			persistenceManager.persist(repository, false, process);
+
+			this.process = process;
+			isDirty = false;
+			isPersisted = true;
+			state = process.getState();
+		}
+	}
+}
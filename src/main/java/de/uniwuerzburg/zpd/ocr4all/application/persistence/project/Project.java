@@ -7,10 +7,16 @@
  */
 package de.uniwuerzburg.zpd.ocr4all.application.persistence.project;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.Keyword;
 
 /**
@@ -261,6 +267,12 @@ public class Project extends Keyword {
 		 */
 		private Right other = null;
 
+		/**
+		 * The packed rights. They are computed on demand and reset if the grants
+		 * change.
+		 */
+		private volatile Masks masks = null;
+
 		/**
 		 * Default constructor for project securities.
 		 *
@@ -309,6 +321,8 @@ public class Project extends Keyword {
 		 */
 		public void setUsers(Set<Grant> grants) {
 			users = filter(grants);
+
+			masks = null;
 		}
 
 		/**
@@ -329,6 +343,8 @@ public class Project extends Keyword {
 		 */
 		public void setGroups(Set<Grant> grants) {
 			groups = filter(grants);
+
+			masks = null;
 		}
 
 		/**
@@ -349,6 +365,160 @@ public class Project extends Keyword {
 		 */
 		public void setOther(Right rights) {
 			other = rights;
+
+			masks = null;
+		}
+
+		/**
+		 * Returns the packed rights. They are computed once and reused until the
+		 * grants or the other rights are set again.
+		 *
+		 * @return The packed rights.
+		 * @since 1.8
+		 */
+		private Masks getMasks() {
+			Masks masks = this.masks;
+			if (masks == null) {
+				masks = new Masks(this);
+
+				this.masks = masks;
+			}
+
+			return masks;
+		}
+
+		/**
+		 * Resets the packed rights, such that they are computed again on next access.
+		 * This is required if grants are modified in place.
+		 *
+		 * @since 1.8
+		 */
+		public void resetMasks() {
+			masks = null;
+		}
+
+		/**
+		 * Returns the normalized target, this means, it is trimmed and converted to
+		 * lower case. Normalized targets are returned without allocation.
+		 *
+		 * @param target The target.
+		 * @return The normalized target. Null if the target is null or blank.
+		 * @since 1.8
+		 */
+		private static String normalize(String target) {
+			return target == null || target.isBlank() ? null : target.trim().toLowerCase();
+		}
+
+		/**
+		 * Returns the packed rights of the user, this means, the merged rights of the
+		 * user grants, the grants of the user groups and the other rights.
+		 *
+		 * @param user   The user.
+		 * @param groups The user groups.
+		 * @return The packed rights. A combination of {@link Right#read},
+		 *         {@link Right#write}, {@link Right#execute} and
+		 *         {@link Right#special}.
+		 * @since 1.8
+		 */
+		public int getMask(String user, Collection<String> groups) {
+			Masks masks = getMasks();
+
+			int mask = masks.other;
+
+			user = normalize(user);
+			if (user != null) {
+				Integer rights = masks.users.get(user);
+				if (rights != null)
+					mask |= rights;
+			}
+
+			if (groups != null && !masks.groups.isEmpty())
+				for (String group : groups) {
+					if (mask == Right.all)
+						break;
+
+					group = normalize(group);
+					if (group != null) {
+						Integer rights = masks.groups.get(group);
+						if (rights != null)
+							mask |= rights;
+					}
+				}
+
+			return mask;
+		}
+
+		/**
+		 * Returns true if all required rights are granted to the user.
+		 *
+		 * @param user   The user.
+		 * @param groups The user groups.
+		 * @param mask   The required rights. A combination of {@link Right#read},
+		 *               {@link Right#write}, {@link Right#execute} and
+		 *               {@link Right#special}.
+		 * @return True if all required rights are granted to the user.
+		 * @since 1.8
+		 */
+		public boolean can(String user, Collection<String> groups, int mask) {
+			return (getMask(user, groups) & mask) == mask;
+		}
+
+		/**
+		 * Defines packed rights of securities.
+		 *
+		 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+		 * @version 1.0
+		 * @since 1.8
+		 */
+		private static class Masks {
+			/**
+			 * The merged user rights. The key is the user.
+			 */
+			private final Map<String, Integer> users;
+
+			/**
+			 * The merged group rights. The key is the group.
+			 */
+			private final Map<String, Integer> groups;
+
+			/**
+			 * The other rights.
+			 */
+			private final int other;
+
+			/**
+			 * Creates packed rights.
+			 *
+			 * @param security The security.
+			 * @since 1.8
+			 */
+			private Masks(Security security) {
+				super();
+
+				users = merge(security.getUsers());
+				groups = merge(security.getGroups());
+				other = security.getOther() == null ? 0 : security.getOther().getMask();
+			}
+
+			/**
+			 * Returns the merged rights of the grant targets.
+			 *
+			 * @param grants The grants.
+			 * @return The merged rights. The key is the target.
+			 * @since 1.8
+			 */
+			private static Map<String, Integer> merge(Set<Grant> grants) {
+				if (grants == null || grants.isEmpty())
+					return Collections.emptyMap();
+
+				Map<String, Integer> rights = new HashMap<>();
+				for (Grant grant : grants)
+					if (grant != null && grant.getTargets() != null)
+						for (String target : grant.getTargets())
+							rights.merge(target, grant.getMask(), (r1, r2) -> r1 | r2);
+
+				return rights;
+			}
 		}
 
 		/**
@@ -359,6 +529,31 @@ public class Project extends Keyword {
 		 * @since 1.8
 		 */
 		public static class Right {
+			/**
+			 * The packed read right.
+			 */
+			public static final int read = 1;
+
+			/**
+			 * The packed write right.
+			 */
+			public static final int write = 1 << 1;
+
+			/**
+			 * The packed execute right.
+			 */
+			public static final int execute = 1 << 2;
+
+			/**
+			 * The packed special right.
+			 */
+			public static final int special = 1 << 3;
+
+			/**
+			 * All packed rights.
+			 */
+			public static final int all = read | write | execute | special;
+
 			/**
 			 * True if read right is available.
 			 */
@@ -459,6 +654,19 @@ public class Project extends Keyword {
 				this.isSpecial = isSpecial;
 			}
 
+			/**
+			 * Returns the packed rights.
+			 *
+			 * @return The packed rights. A combination of {@link #read}, {@link #write},
+			 *         {@link #execute} and {@link #special}.
+			 * @since 1.8
+			 */
+			@JsonIgnore
+			public int getMask() {
+				return (isRead ? read : 0) | (isWrite ? write : 0) | (isExecute ? execute : 0)
+						| (isSpecial ? special : 0);
+			}
+
 		}
 
 		/**
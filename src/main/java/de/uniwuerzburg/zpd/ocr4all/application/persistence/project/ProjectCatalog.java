@@ -0,0 +1,623 @@
+/**
+ * File:     ProjectCatalog.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.project
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.project;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Entity;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Keyword;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.util.PersistenceTools;
+
+/**
+ * Defines project catalogs. A catalog holds one compact entry for every
+ * project of a projects folder, such that the projects can be listed by
+ * reading a single repository. The catalog can be registered as listener on
+ * the persistence manager of the projects to be updated on every project
+ * persist.
+ *
+ * <p>
+ * Every project is a sub folder of the projects folder. The project id is the
+ * name of the sub folder and the project repository is located at the same
+ * relative path in every project folder.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class ProjectCatalog implements PersistenceManager.Listener {
+	/**
+	 * The default catalog repository name.
+	 */
+	public static final String defaultCatalogName = ".project_catalog";
+
+	/**
+	 * The JSON object mapper to compute the security digests.
+	 */
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * The projects folder. It is absolute and normalized.
+	 */
+	private final Path folder;
+
+	/**
+	 * The path of the project repository relative to the project folder.
+	 */
+	private final Path configuration;
+
+	/**
+	 * The catalog repository.
+	 */
+	private final Path catalog;
+
+	/**
+	 * The persistence manager for the catalog repository.
+	 */
+	private final PersistenceManager catalogManager;
+
+	/**
+	 * The persistence manager for the project repositories.
+	 */
+	private final PersistenceManager projectManager = new PersistenceManager(Type.project_v1);
+
+	/**
+	 * Creates a project catalog with default catalog repository name.
+	 *
+	 * @param folder        The projects folder.
+	 * @param configuration The path of the project repository relative to the
+	 *                      project folder.
+	 * @throws IllegalArgumentException Throws if a path is null or the
+	 *                                  configuration is not relative.
+	 * @since 1.8
+	 */
+	public ProjectCatalog(Path folder, Path configuration) throws IllegalArgumentException {
+		this(folder, configuration, defaultCatalogName);
+	}
+
+	/**
+	 * Creates a project catalog.
+	 *
+	 * @param folder        The projects folder.
+	 * @param configuration The path of the project repository relative to the
+	 *                      project folder.
+	 * @param name          The name of the catalog repository in the projects
+	 *                      folder.
+	 * @throws IllegalArgumentException Throws if a path is null or the
+	 *                                  configuration is not relative.
+	 * @since 1.8
+	 */
+	public ProjectCatalog(Path folder, Path configuration, String name) throws IllegalArgumentException {
+		super();
+
+		if (folder == null || configuration == null || name == null || name.isBlank())
+			throw new IllegalArgumentException("ProjectCatalog: the folder, configuration and name are mandatory.");
+
+		if (configuration.isAbsolute())
+			throw new IllegalArgumentException("ProjectCatalog: the configuration must be a relative path.");
+
+		this.folder = folder.toAbsolutePath().normalize();
+		this.configuration = configuration.normalize();
+
+		catalog = this.folder.resolve(name.trim());
+		catalogManager = new PersistenceManager(catalog, Type.project_catalog_v1);
+	}
+
+	/**
+	 * Returns the projects folder.
+	 *
+	 * @return The absolute and normalized projects folder.
+	 * @since 1.8
+	 */
+	public Path getFolder() {
+		return folder;
+	}
+
+	/**
+	 * Returns the project repository.
+	 *
+	 * @param id The project id.
+	 * @return The project repository.
+	 * @since 1.8
+	 */
+	public Path getRepository(String id) {
+		return folder.resolve(id).resolve(configuration);
+	}
+
+	/**
+	 * Returns the project id of the repository. Relative repositories are
+	 * resolved against the current working directory.
+	 *
+	 * @param repository The repository.
+	 * @return The project id. Null if the repository is not a project repository
+	 *         of the projects folder.
+	 * @since 1.8
+	 */
+	public String getId(Path repository) {
+		if (repository == null)
+			return null;
+
+		repository = repository.toAbsolutePath().normalize();
+		if (!repository.startsWith(folder))
+			return null;
+
+		Path relative = folder.relativize(repository);
+
+		return relative.getNameCount() == configuration.getNameCount() + 1
+				&& relative.subpath(1, relative.getNameCount()).equals(configuration)
+						? relative.getName(0).toString()
+						: null;
+	}
+
+	/**
+	 * Returns the canonical JSON representation of the node, this means, the
+	 * object fields are sorted by name and the array elements by their canonical
+	 * representation. The security grants are held in hash sets, thus their
+	 * serialization order is not stable.
+	 *
+	 * @param node The node.
+	 * @return The canonical JSON representation.
+	 * @since 1.8
+	 */
+	private static String getCanonical(JsonNode node) {
+		if (node.isObject()) {
+			List<String> names = new ArrayList<>();
+			node.fieldNames().forEachRemaining(names::add);
+			Collections.sort(names);
+
+			StringBuilder buffer = new StringBuilder("{");
+			for (String name : names) {
+				if (buffer.length() > 1)
+					buffer.append(",");
+
+				buffer.append(TextNode.valueOf(name).toString() + ":" + getCanonical(node.get(name)));
+			}
+
+			return buffer.append("}").toString();
+		} else if (node.isArray()) {
+			List<String> elements = new ArrayList<>();
+			for (JsonNode element : node)
+				elements.add(getCanonical(element));
+			Collections.sort(elements);
+
+			return "[" + String.join(",", elements) + "]";
+		} else
+			return node.toString();
+	}
+
+	/**
+	 * Returns the catalog entry for the project.
+	 *
+	 * @param id      The project id.
+	 * @param project The project.
+	 * @return The catalog entry.
+	 * @throws IOException Throws if the security digest can not be computed.
+	 * @since 1.8
+	 */
+	private Entry getEntry(String id, Project project) throws IOException {
+		try {
+			return new Entry(id, project, project.getSecurity() == null ? null
+					: PersistenceTools.getDigest(getCanonical(objectMapper.valueToTree(project.getSecurity()))));
+		} catch (IllegalArgumentException e) {
+			throw new IOException(
+					"ProjectCatalog: troubles processing (parsing, generating) JSON - " + e.getMessage() + ".");
+		}
+	}
+
+	/**
+	 * Returns the catalog entries.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The catalog entries in catalog order.
+	 * @throws IOException Throws if the catalog can not be read.
+	 * @since 1.8
+	 */
+	public synchronized List<Entry> getEntries(PersistenceManager.Message message) throws IOException {
+		return catalogManager.getEntities(Entry.class, message);
+	}
+
+	/**
+	 * Returns the catalog entries. The key is the project id.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The catalog entries.
+	 * @throws IOException Throws if the catalog can not be read.
+	 * @since 1.8
+	 */
+	private Map<String, Entry> getCatalog(PersistenceManager.Message message) throws IOException {
+		Map<String, Entry> entries = new LinkedHashMap<>();
+
+		for (Entry entry : catalogManager.getEntities(Entry.class, message))
+			if (entry.getId() != null)
+				entries.put(entry.getId(), entry);
+
+		return entries;
+	}
+
+	/**
+	 * Updates the catalog entry of the project. The catalog is exclusively
+	 * locked by a file lock while it is read and rewritten, such that concurrent
+	 * updates, both from this and other processes, are not lost.
+	 *
+	 * @param id      The project id.
+	 * @param project The project. If null, the entry is removed.
+	 * @throws IOException Throws if the catalog can not be read or written.
+	 * @since 1.8
+	 */
+	public void update(String id, Project project) throws IOException {
+		if (id == null)
+			return;
+
+		Entry entry = project == null ? null : getEntry(id, project);
+
+		if (entry != null)
+			try {
+				// The catalog has to exist to be replaced under the file lock
+				Files.createFile(catalog);
+			} catch (FileAlreadyExistsException e) {
+				// The catalog is available
+			}
+
+		catalogManager.replace(null, Entry.class, null, persisted -> {
+			Map<String, Entry> entries = new LinkedHashMap<>();
+			for (Entry current : persisted)
+				if (current.getId() != null)
+					entries.put(current.getId(), current);
+
+			if (entry == null) {
+				if (entries.remove(id) == null)
+					return null;
+			} else
+				entries.put(id, entry);
+
+			return entries.values();
+		});
+	}
+
+	/**
+	 * Removes the catalog entry of the project.
+	 *
+	 * @param id The project id.
+	 * @throws IOException Throws if the catalog can not be read or written.
+	 * @since 1.8
+	 */
+	public void remove(String id) throws IOException {
+		update(id, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager.
+	 * Listener#persisted(java.nio.file.Path, boolean, java.util.List)
+	 */
+	@Override
+	public void persisted(Path repository, boolean isAppend, List<Entity> entities) throws IOException {
+		String id = getId(repository);
+		if (id != null && !isAppend)
+			for (Entity entity : entities)
+				if (entity instanceof Project) {
+					update(id, (Project) entity);
+
+					break;
+				}
+	}
+
+	/**
+	 * Returns the projects of the projects folder, this means, the first project
+	 * entity of every project repository.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The projects. The key is the project id.
+	 * @throws IOException Throws if the projects folder can not be read.
+	 * @since 1.8
+	 */
+	private Map<String, Project> getProjects(PersistenceManager.Message message) throws IOException {
+		Map<String, Project> projects = new LinkedHashMap<>();
+
+		List<Path> folders = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, Files::isDirectory)) {
+			for (Path path : stream)
+				folders.add(path);
+		}
+		folders.sort(Comparator.comparing(Path::getFileName));
+
+		for (Path path : folders) {
+			String id = path.getFileName().toString();
+			Path repository = getRepository(id);
+
+			if (Files.isRegularFile(repository))
+				try {
+					Project project = projectManager.getEntity(Type.project_v1, Project.class, repository, message);
+					if (project != null)
+						projects.put(id, project);
+				} catch (IOException e) {
+					if (message != null)
+						message.warn(e.getMessage());
+				}
+		}
+
+		return projects;
+	}
+
+	/**
+	 * Rebuilds the catalog from scratch, this means, every project repository of
+	 * the projects folder is read.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The number of catalog entries.
+	 * @throws IOException Throws if the projects folder can not be read or the
+	 *                     catalog can not be written.
+	 * @since 1.8
+	 */
+	public synchronized int rebuild(PersistenceManager.Message message) throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		for (Map.Entry<String, Project> project : getProjects(message).entrySet())
+			entries.add(getEntry(project.getKey(), project.getValue()));
+
+		return catalogManager.persist(entries);
+	}
+
+	/**
+	 * Checks the consistency of the catalog with the project repositories.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The ids of the projects, whose catalog entries are missing, obsolete
+	 *         or outdated. Empty if the catalog is consistent.
+	 * @throws IOException Throws if the projects folder or the catalog can not be
+	 *                     read.
+	 * @since 1.8
+	 */
+	public synchronized List<String> check(PersistenceManager.Message message) throws IOException {
+		List<String> inconsistencies = new ArrayList<>();
+
+		Map<String, Entry> entries = getCatalog(message);
+		for (Map.Entry<String, Project> project : getProjects(message).entrySet()) {
+			Entry entry = entries.remove(project.getKey());
+
+			if (entry == null || !entry.isEqual(getEntry(project.getKey(), project.getValue())))
+				inconsistencies.add(project.getKey());
+		}
+
+		inconsistencies.addAll(entries.keySet());
+
+		return inconsistencies;
+	}
+
+	/**
+	 * Defines project catalog entries.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Entry extends Keyword {
+		/**
+		 * The serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The project id.
+		 */
+		private String id = null;
+
+		/**
+		 * The name.
+		 */
+		private String name = null;
+
+		/**
+		 * The state.
+		 */
+		private Project.State state = null;
+
+		/**
+		 * The updated time.
+		 */
+		private Date updated = null;
+
+		/**
+		 * The done time.
+		 */
+		private Date done = null;
+
+		/**
+		 * The security digest. Null if the project is not secured.
+		 */
+		private String security = null;
+
+		/**
+		 * Default constructor for a project catalog entry.
+		 *
+		 * @since 1.8
+		 */
+		public Entry() {
+			super();
+		}
+
+		/**
+		 * Creates a project catalog entry.
+		 *
+		 * @param id       The project id.
+		 * @param project  The project.
+		 * @param security The security digest. Null if the project is not secured.
+		 * @since 1.8
+		 */
+		public Entry(String id, Project project, String security) {
+			super(project.getDate(), project.getUser(), project.getKeywords());
+
+			this.id = id;
+			this.security = security;
+
+			name = project.getName();
+			state = project.getState();
+			updated = project.getUpdated();
+			done = project.getDone();
+		}
+
+		/**
+		 * Returns true if the entries are equal.
+		 *
+		 * @param entry The entry to compare.
+		 * @return True if the entries are equal.
+		 * @since 1.8
+		 */
+		private boolean isEqual(Entry entry) {
+			return Objects.equals(id, entry.getId()) && Objects.equals(name, entry.getName())
+					&& state == entry.getState() && Objects.equals(updated, entry.getUpdated())
+					&& Objects.equals(done, entry.getDone()) && Objects.equals(security, entry.getSecurity())
+					&& Objects.equals(getDate(), entry.getDate()) && Objects.equals(getUser(), entry.getUser())
+					&& Objects.equals(getKeywords(), entry.getKeywords());
+		}
+
+		/**
+		 * Returns the project id.
+		 *
+		 * @return The project id.
+		 * @since 1.8
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Set the project id.
+		 *
+		 * @param id The project id to set.
+		 * @since 1.8
+		 */
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		/**
+		 * Returns the name.
+		 *
+		 * @return The name.
+		 * @since 1.8
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Set the name.
+		 *
+		 * @param name The name to set.
+		 * @since 1.8
+		 */
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Returns the state.
+		 *
+		 * @return The state.
+		 * @since 1.8
+		 */
+		public Project.State getState() {
+			return state;
+		}
+
+		/**
+		 * Set the state.
+		 *
+		 * @param state The state to set.
+		 * @since 1.8
+		 */
+		public void setState(Project.State state) {
+			this.state = state;
+		}
+
+		/**
+		 * Returns the updated time.
+		 *
+		 * @return The updated time.
+		 * @since 1.8
+		 */
+		public Date getUpdated() {
+			return updated;
+		}
+
+		/**
+		 * Set the updated time.
+		 *
+		 * @param updated The updated time to set.
+		 * @since 1.8
+		 */
+		public void setUpdated(Date updated) {
+			this.updated = updated;
+		}
+
+		/**
+		 * Returns the done time.
+		 *
+		 * @return The done time.
+		 * @since 1.8
+		 */
+		public Date getDone() {
+			return done;
+		}
+
+		/**
+		 * Set the done time.
+		 *
+		 * @param done The done time to set.
+		 * @since 1.8
+		 */
+		public void setDone(Date done) {
+			this.done = done;
+		}
+
+		/**
+		 * Returns the security digest.
+		 *
+		 * @return The security digest. Null if the project is not secured.
+		 * @since 1.8
+		 */
+		public String getSecurity() {
+			return security;
+		}
+
+		/**
+		 * Set the security digest.
+		 *
+		 * @param security The security digest to set. Null if the project is not
+		 *                 secured.
+		 * @since 1.8
+		 */
+		public void setSecurity(String security) {
+			this.security = security;
+		}
+	}
+}
@@ -0,0 +1,705 @@
+/**
+ * File:     SnapshotIndex.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Entity;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Tracking;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+
+/**
+ * Defines snapshot indices of sandboxes. The index holds one entry for every
+ * snapshot of the sandbox, such that the snapshot tree can be rendered from a
+ * single sequential read. The index can be registered as listener on the
+ * persistence manager of the snapshots to be updated on every snapshot
+ * persist.
+ *
+ * <p>
+ * The snapshots are organized in folders. The root snapshot is located in the
+ * root folder and the derived snapshots are located in numbered sub folders of
+ * the derived folder of their parent snapshot. The track of a snapshot is the
+ * sequence of these numbers, this means, the track of the root snapshot is
+ * empty. The snapshot repository is located at the same relative path in every
+ * snapshot folder.
+ * </p>
+ *
+ * <p>
+ * The index is updated incrementally, this means, the entries are appended and
+ * the last entry of a track is effective. A removal entry removes the snapshot
+ * and its derived snapshots. Obsolete entries are compacted on update when
+ * they outnumber the effective ones, while the index repository is locked.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class SnapshotIndex implements PersistenceManager.Listener {
+	/**
+	 * The default index repository name.
+	 */
+	public static final String defaultIndexName = ".snapshot_index";
+
+	/**
+	 * The default derived folder name.
+	 */
+	public static final String defaultDerivedName = "derived";
+
+	/**
+	 * The root snapshot folder.
+	 */
+	private final Path root;
+
+	/**
+	 * The derived folder name.
+	 */
+	private final String derived;
+
+	/**
+	 * The path of the snapshot repository relative to the snapshot folder.
+	 */
+	private final Path configuration;
+
+	/**
+	 * The persistence manager for the index repository.
+	 */
+	private final PersistenceManager indexManager;
+
+	/**
+	 * The persistence manager for the snapshot repositories.
+	 */
+	private final PersistenceManager snapshotManager = new PersistenceManager(Type.project_sandbox_snapshot_v1);
+
+	/**
+	 * The number of entries of the index repository when it was read last,
+	 * including the entries appended since. It is -1 if the index repository
+	 * was not read yet.
+	 */
+	private int number = -1;
+
+	/**
+	 * The number of effective entries when the index repository was read last.
+	 */
+	private int effective = 0;
+
+	/**
+	 * Creates a snapshot index with default derived folder name. The index
+	 * repository is stored alongside the sandbox repository with default name.
+	 *
+	 * @param sandbox       The sandbox repository.
+	 * @param root          The root snapshot folder.
+	 * @param configuration The path of the snapshot repository relative to the
+	 *                      snapshot folder.
+	 * @throws IllegalArgumentException Throws if a path is null or the
+	 *                                  configuration is not relative.
+	 * @since 1.8
+	 */
+	public SnapshotIndex(Path sandbox, Path root, Path configuration) throws IllegalArgumentException {
+		this(sandbox == null ? null : sandbox.resolveSibling(defaultIndexName), root, defaultDerivedName,
+				configuration);
+	}
+
+	/**
+	 * Creates a snapshot index.
+	 *
+	 * @param index         The index repository.
+	 * @param root          The root snapshot folder.
+	 * @param derived       The derived folder name.
+	 * @param configuration The path of the snapshot repository relative to the
+	 *                      snapshot folder.
+	 * @throws IllegalArgumentException Throws if a path or the derived folder
+	 *                                  name is null or the configuration is not
+	 *                                  relative.
+	 * @since 1.8
+	 */
+	public SnapshotIndex(Path index, Path root, String derived, Path configuration) throws IllegalArgumentException {
+		super();
+
+		if (index == null || root == null || derived == null || derived.isBlank() || configuration == null)
+			throw new IllegalArgumentException(
+					"SnapshotIndex: the index, root, derived folder name and configuration are mandatory.");
+
+		if (configuration.isAbsolute())
+			throw new IllegalArgumentException("SnapshotIndex: the configuration must be a relative path.");
+
+		this.root = root.normalize();
+		this.derived = derived.trim();
+		this.configuration = configuration.normalize();
+
+		indexManager = new PersistenceManager(index, Type.project_sandbox_snapshot_index_v1);
+	}
+
+	/**
+	 * Returns the snapshot folder.
+	 *
+	 * @param track The track.
+	 * @return The snapshot folder.
+	 * @since 1.8
+	 */
+	public Path getFolder(List<Integer> track) {
+		Path folder = root;
+
+		if (track != null)
+			for (Integer number : track)
+				folder = folder.resolve(derived).resolve(String.valueOf(number));
+
+		return folder;
+	}
+
+	/**
+	 * Returns the snapshot repository.
+	 *
+	 * @param track The track.
+	 * @return The snapshot repository.
+	 * @since 1.8
+	 */
+	public Path getRepository(List<Integer> track) {
+		return getFolder(track).resolve(configuration);
+	}
+
+	/**
+	 * Returns the track of the snapshot repository.
+	 *
+	 * @param repository The repository.
+	 * @return The track. Null if the repository is not a snapshot repository of
+	 *         the sandbox.
+	 * @since 1.8
+	 */
+	public List<Integer> getTrack(Path repository) {
+		if (repository == null)
+			return null;
+
+		repository = repository.normalize();
+		if (!repository.startsWith(root) || !repository.endsWith(configuration))
+			return null;
+
+		Path relative = root.relativize(repository);
+		int length = relative.getNameCount() - configuration.getNameCount();
+		if (length % 2 != 0)
+			return null;
+
+		List<Integer> track = new ArrayList<>();
+		for (int i = 0; i < length; i += 2) {
+			if (!derived.equals(relative.getName(i).toString()))
+				return null;
+
+			try {
+				track.add(Integer.parseInt(relative.getName(i + 1).toString()));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		return track;
+	}
+
+	/**
+	 * Returns the effective index entries.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The effective index entries in track order.
+	 * @throws IOException Throws if the index can not be read.
+	 * @since 1.8
+	 */
+	public synchronized List<Entry> getEntries(PersistenceManager.Message message) throws IOException {
+		List<Entry> entries = indexManager.getEntities(Entry.class, message);
+		List<Entry> effective = getEffective(entries);
+
+		number = entries.size();
+		this.effective = effective.size();
+
+		return effective;
+	}
+
+	/**
+	 * Returns the effective index entries. The last entry of a track is
+	 * effective, unless the track or one of its ancestors was removed afterwards.
+	 *
+	 * @param entries The index entries in repository order.
+	 * @return The effective index entries in track order.
+	 * @since 1.8
+	 */
+	private static List<Entry> getEffective(List<Entry> entries) {
+		NavigableMap<List<Integer>, Entry> effective = new TreeMap<>(SnapshotIndex::compare);
+
+		for (Entry entry : entries)
+			if (entry.getTrack() != null) {
+				if (entry.isRemoved()) {
+					// the descendants directly follow the track in track order
+					Iterator<List<Integer>> iterator = effective.tailMap(entry.getTrack(), true).keySet().iterator();
+					while (iterator.hasNext() && isDescendant(entry.getTrack(), iterator.next()))
+						iterator.remove();
+				} else
+					effective.put(entry.getTrack(), entry);
+			}
+
+		return new ArrayList<>(effective.values());
+	}
+
+	/**
+	 * Returns true if the track is the ancestor track or one of its descendants.
+	 *
+	 * @param ancestor The ancestor track.
+	 * @param track    The track.
+	 * @return True if the track is the ancestor track or one of its descendants.
+	 * @since 1.8
+	 */
+	private static boolean isDescendant(List<Integer> ancestor, List<Integer> track) {
+		return track.size() >= ancestor.size() && track.subList(0, ancestor.size()).equals(ancestor);
+	}
+
+	/**
+	 * Returns the snapshot tree.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The root node of the snapshot tree. Null if the root snapshot is
+	 *         not indexed.
+	 * @throws IOException Throws if the index can not be read.
+	 * @since 1.8
+	 */
+	public Node getTree(PersistenceManager.Message message) throws IOException {
+		Map<List<Integer>, Node> nodes = new TreeMap<>(SnapshotIndex::compare);
+		for (Entry entry : getEntries(message))
+			nodes.put(entry.getTrack(), new Node(entry));
+
+		for (Node node : nodes.values()) {
+			List<Integer> track = node.getEntry().getTrack();
+			if (!track.isEmpty()) {
+				Node parent = nodes.get(track.subList(0, track.size() - 1));
+				if (parent == null) {
+					if (message != null)
+						message.warn("the parent of the snapshot with track " + track + " is not indexed.");
+				} else
+					parent.children.add(node);
+			}
+		}
+
+		return nodes.get(Collections.<Integer>emptyList());
+	}
+
+	/**
+	 * Updates the index entry of the snapshot. The index is compacted afterwards
+	 * if obsolete entries outnumber the effective ones. The first update reads the
+	 * index to count its entries, if it was not read yet.
+	 *
+	 * @param track    The track.
+	 * @param snapshot The snapshot. If null, the entries of the snapshot and its
+	 *                 derived snapshots are removed.
+	 * @throws IOException Throws if the index can not be written.
+	 * @since 1.8
+	 */
+	public synchronized void update(List<Integer> track, Snapshot snapshot) throws IOException {
+		if (track != null) {
+			indexManager.persist(true, snapshot == null ? new Entry(track) : new Entry(track, snapshot));
+
+			if (number < 0 || ++number > 2 * effective)
+				compact();
+		}
+	}
+
+	/**
+	 * Compacts the index, this means, the index repository is replaced by the
+	 * effective entries if obsolete entries outnumber them. The index repository
+	 * is locked while it is read and rewritten, such that entries appended
+	 * concurrently are not lost.
+	 *
+	 * @throws IOException Throws if the index can not be read or written.
+	 * @since 1.8
+	 */
+	private void compact() throws IOException {
+		indexManager.replace(null, Entry.class, null, entries -> {
+			List<Entry> effective = getEffective(entries);
+
+			number = entries.size();
+			this.effective = effective.size();
+
+			if (number <= 2 * this.effective)
+				return null;
+
+			number = this.effective;
+
+			return effective;
+		});
+	}
+
+	/**
+	 * Removes the index entries of the snapshot and its derived snapshots.
+	 *
+	 * @param track The track.
+	 * @throws IOException Throws if the index can not be written.
+	 * @since 1.8
+	 */
+	public void remove(List<Integer> track) throws IOException {
+		update(track, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager.
+	 * Listener#persisted(java.nio.file.Path, boolean, java.util.List)
+	 */
+	@Override
+	public void persisted(Path repository, boolean isAppend, List<Entity> entities) throws IOException {
+		List<Integer> track = getTrack(repository);
+		if (track != null && !isAppend)
+			for (Entity entity : entities)
+				if (entity instanceof Snapshot) {
+					update(track, (Snapshot) entity);
+
+					break;
+				}
+	}
+
+	/**
+	 * Rebuilds the index from scratch, this means, the snapshot tree is walked and
+	 * every snapshot repository is read.
+	 *
+	 * @param message The functional interfaces to account for warning messages.
+	 *                If null, ignore warning messages.
+	 * @return The number of index entries.
+	 * @throws IOException Throws if the snapshot tree can not be read or the index
+	 *                     can not be written.
+	 * @since 1.8
+	 */
+	public synchronized int rebuild(PersistenceManager.Message message) throws IOException {
+		List<Entry> entries = new ArrayList<>();
+
+		List<List<Integer>> tracks = new ArrayList<>();
+		tracks.add(new ArrayList<>());
+		while (!tracks.isEmpty()) {
+			List<Integer> track = tracks.remove(tracks.size() - 1);
+
+			Path repository = getRepository(track);
+			if (Files.isRegularFile(repository))
+				try {
+					Snapshot snapshot = snapshotManager.getEntity(Type.project_sandbox_snapshot_v1, Snapshot.class,
+							repository, message);
+					if (snapshot != null)
+						entries.add(new Entry(track, snapshot));
+				} catch (IOException e) {
+					if (message != null)
+						message.warn(e.getMessage());
+				}
+
+			Path folder = getFolder(track).resolve(derived);
+			if (Files.isDirectory(folder))
+				try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, Files::isDirectory)) {
+					for (Path path : stream)
+						try {
+							List<Integer> child = new ArrayList<>(track);
+							child.add(Integer.parseInt(path.getFileName().toString()));
+
+							tracks.add(child);
+						} catch (NumberFormatException e) {
+							// Ignore folders that are not snapshots
+						}
+				}
+		}
+
+		entries.sort((a, b) -> compare(a.getTrack(), b.getTrack()));
+
+		number = effective = indexManager.persist(entries);
+
+		return number;
+	}
+
+	/**
+	 * Compares the tracks lexicographically, such that parents precede their
+	 * children.
+	 *
+	 * @param a The first track.
+	 * @param b The second track.
+	 * @return A negative integer, zero, or a positive integer as the first track
+	 *         is less than, equal to, or greater than the second.
+	 * @since 1.8
+	 */
+	private static int compare(List<Integer> a, List<Integer> b) {
+		for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+			int compare = Integer.compare(a.get(i), b.get(i));
+			if (compare != 0)
+				return compare;
+		}
+
+		return Integer.compare(a.size(), b.size());
+	}
+
+	/**
+	 * Defines snapshot tree nodes.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Node {
+		/**
+		 * The index entry.
+		 */
+		private final Entry entry;
+
+		/**
+		 * The children in track order.
+		 */
+		private final List<Node> children = new ArrayList<>();
+
+		/**
+		 * Creates a snapshot tree node.
+		 *
+		 * @param entry The index entry.
+		 * @since 1.8
+		 */
+		private Node(Entry entry) {
+			super();
+
+			this.entry = entry;
+		}
+
+		/**
+		 * Returns the index entry.
+		 *
+		 * @return The index entry.
+		 * @since 1.8
+		 */
+		public Entry getEntry() {
+			return entry;
+		}
+
+		/**
+		 * Returns the children in track order.
+		 *
+		 * @return The children.
+		 * @since 1.8
+		 */
+		public List<Node> getChildren() {
+			return children;
+		}
+	}
+
+	/**
+	 * Defines snapshot index entries.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Entry extends Tracking {
+		/**
+		 * The serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The track.
+		 */
+		private List<Integer> track = null;
+
+		/**
+		 * The type.
+		 */
+		private Snapshot.Type type = null;
+
+		/**
+		 * The label.
+		 */
+		private String label = null;
+
+		/**
+		 * The updated time.
+		 */
+		private Date updated = null;
+
+		/**
+		 * The lock. Null if the snapshot is not locked.
+		 */
+		private Snapshot.Lock lock = null;
+
+		/**
+		 * True if the snapshot was removed.
+		 */
+		private boolean isRemoved = false;
+
+		/**
+		 * Default constructor for a snapshot index entry.
+		 *
+		 * @since 1.8
+		 */
+		public Entry() {
+			super();
+		}
+
+		/**
+		 * Creates a snapshot index entry for a removed snapshot.
+		 *
+		 * @param track The track.
+		 * @since 1.8
+		 */
+		public Entry(List<Integer> track) {
+			super(new Date(), null);
+
+			this.track = new ArrayList<>(track);
+
+			isRemoved = true;
+		}
+
+		/**
+		 * Creates a snapshot index entry.
+		 *
+		 * @param track    The track.
+		 * @param snapshot The snapshot.
+		 * @since 1.8
+		 */
+		public Entry(List<Integer> track, Snapshot snapshot) {
+			super(snapshot.getDate(), snapshot.getUser());
+
+			this.track = new ArrayList<>(track);
+
+			type = snapshot.getType();
+			label = snapshot.getLabel();
+			updated = snapshot.getUpdated();
+			lock = snapshot.getLock();
+		}
+
+		/**
+		 * Returns the track.
+		 *
+		 * @return The track.
+		 * @since 1.8
+		 */
+		public List<Integer> getTrack() {
+			return track;
+		}
+
+		/**
+		 * Set the track.
+		 *
+		 * @param track The track to set.
+		 * @since 1.8
+		 */
+		public void setTrack(List<Integer> track) {
+			this.track = track;
+		}
+
+		/**
+		 * Returns the type.
+		 *
+		 * @return The type.
+		 * @since 1.8
+		 */
+		public Snapshot.Type getType() {
+			return type;
+		}
+
+		/**
+		 * Set the type.
+		 *
+		 * @param type The type to set.
+		 * @since 1.8
+		 */
+		public void setType(Snapshot.Type type) {
+			this.type = type;
+		}
+
+		/**
+		 * Returns the label.
+		 *
+		 * @return The label.
+		 * @since 1.8
+		 */
+		public String getLabel() {
+			return label;
+		}
+
+		/**
+		 * Set the label.
+		 *
+		 * @param label The label to set.
+		 * @since 1.8
+		 */
+		public void setLabel(String label) {
+			this.label = label;
+		}
+
+		/**
+		 * Returns the updated time.
+		 *
+		 * @return The updated time.
+		 * @since 1.8
+		 */
+		public Date getUpdated() {
+			return updated;
+		}
+
+		/**
+		 * Set the updated time.
+		 *
+		 * @param updated The updated time to set.
+		 * @since 1.8
+		 */
+		public void setUpdated(Date updated) {
+			this.updated = updated;
+		}
+
+		/**
+		 * Returns the lock.
+		 *
+		 * @return The lock. Null if the snapshot is not locked.
+		 * @since 1.8
+		 */
+		public Snapshot.Lock getLock() {
+			return lock;
+		}
+
+		/**
+		 * Set the lock.
+		 *
+		 * @param lock The lock to set. Null if the snapshot is not locked.
+		 * @since 1.8
+		 */
+		public void setLock(Snapshot.Lock lock) {
+			this.lock = lock;
+		}
+
+		/**
+		 * Returns true if the snapshot was removed.
+		 *
+		 * @return True if the snapshot was removed.
+		 * @since 1.8
+		 */
+		@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+		public boolean isRemoved() {
+			return isRemoved;
+		}
+
+		/**
+		 * Set to true if the snapshot was removed.
+		 *
+		 * @param isRemoved The removed flag to set.
+		 * @since 1.8
+		 */
+		public void setRemoved(boolean isRemoved) {
+			this.isRemoved = isRemoved;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * File:     SnapshotLocker.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+
+/**
+ * Defines snapshot lockers. The locks are acquired and released with compare
+ * and set semantics on the persisted snapshot, such that concurrent workers can
+ * contend for a snapshot and exactly one of them succeeds. The conditions are
+ * evaluated by locked updates of the persistence manager.
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class SnapshotLocker {
+	/**
+	 * The persistence manager for the snapshot repositories.
+	 */
+	private final PersistenceManager persistenceManager;
+
+	/**
+	 * Creates a snapshot locker.
+	 *
+	 * @since 1.8
+	 */
+	public SnapshotLocker() {
+		this(new PersistenceManager(Type.project_sandbox_snapshot_v1));
+	}
+
+	/**
+	 * Creates a snapshot locker.
+	 *
+	 * @param persistenceManager The persistence manager for the snapshot
+	 *                           repositories.
+	 * @since 1.8
+	 */
+	public SnapshotLocker(PersistenceManager persistenceManager) {
+		super();
+
+		this.persistenceManager = persistenceManager;
+	}
+
+	/**
+	 * Locks the snapshot if it is not locked.
+	 *
+	 * @param repository The snapshot repository.
+	 * @param lock       The lock.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The locked snapshot. Null if the snapshot is not available or it is
+	 *         already locked.
+	 * @throws IOException Throws if the snapshot repository can not be read or
+	 *                     written.
+	 * @since 1.8
+	 */
+	public Snapshot lock(Path repository, Snapshot.Lock lock, PersistenceManager.Message message)
+			throws IOException {
+		return persistenceManager.update(repository, Snapshot.class, message, snapshot -> {
+			if (snapshot.getLock() != null)
+				return false;
+
+			snapshot.setLock(lock);
+
+			return true;
+		});
+	}
+
+	/**
+	 * Locks the snapshot if its persisted version stamp matches the expected one,
+	 * this means, the snapshot was not updated since it was read by the caller.
+	 * An existing lock is replaced.
+	 *
+	 * @param repository The snapshot repository.
+	 * @param version    The expected version stamp.
+	 * @param lock       The lock.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The locked snapshot. Null if the snapshot is not available or the
+	 *         version stamp does not match.
+	 * @throws IOException Throws if the snapshot repository can not be read or
+	 *                     written.
+	 * @since 1.8
+	 */
+	public Snapshot lock(Path repository, long version, Snapshot.Lock lock, PersistenceManager.Message message)
+			throws IOException {
+		return persistenceManager.update(repository, Snapshot.class, message, snapshot -> {
+			if (snapshot.getVersion() != version)
+				return false;
+
+			snapshot.setLock(lock);
+
+			return true;
+		});
+	}
+
+	/**
+	 * Unlocks the snapshot if it is locked by the source.
+	 *
+	 * @param repository The snapshot repository.
+	 * @param source     The lock source. If null, the lock is released regardless
+	 *                   of its source.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The unlocked snapshot. Null if the snapshot is not available, it is
+	 *         not locked or it is locked by another source.
+	 * @throws IOException Throws if the snapshot repository can not be read or
+	 *                     written.
+	 * @since 1.8
+	 */
+	public Snapshot unlock(Path repository, String source, PersistenceManager.Message message) throws IOException {
+		return persistenceManager.update(repository, Snapshot.class, message, snapshot -> {
+			if (snapshot.getLock() == null || (source != null && !source.equals(snapshot.getLock().getSource())))
+				return false;
+
+			snapshot.setLock(null);
+
+			return true;
+		});
+	}
+}
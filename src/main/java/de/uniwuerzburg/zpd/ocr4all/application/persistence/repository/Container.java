@@ -8,10 +8,16 @@
 package de.uniwuerzburg.zpd.ocr4all.application.persistence.repository;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.Keyword;
 
 /**
@@ -287,6 +293,12 @@ public class Container extends Keyword {
 		 */
 		private Right other = null;
 
+		/**
+		 * The compiled access control. It is built on demand and reset if the grants
+		 * change.
+		 */
+		private transient volatile AccessControl accessControl = null;
+
 		/**
 		 * Default constructor for a container securities.
 		 *
@@ -367,6 +379,8 @@ public class Container extends Keyword {
 		 */
 		public void setUsers(Set<Grant> grants) {
 			this.users = filter(grants);
+
+			accessControl = null;
 		}
 
 		/**
@@ -387,6 +401,8 @@ public class Container extends Keyword {
 		 */
 		public void setGroups(Set<Grant> grants) {
 			this.groups = filter(grants);
+
+			accessControl = null;
 		}
 
 		/**
@@ -407,6 +423,181 @@ public class Container extends Keyword {
 		 */
 		public void setOther(Right right) {
 			other = right;
+
+			accessControl = null;
+		}
+
+		/**
+		 * Returns the compiled access control. It is built once and reused until the
+		 * grants or the other right are set again. If grants are modified in place,
+		 * {@link #resetAccessControl()} must be called.
+		 *
+		 * @return The compiled access control.
+		 * @since 1.8
+		 */
+		@JsonIgnore
+		public AccessControl getAccessControl() {
+			AccessControl accessControl = this.accessControl;
+			if (accessControl == null) {
+				accessControl = new AccessControl(this);
+
+				this.accessControl = accessControl;
+			}
+
+			return accessControl;
+		}
+
+		/**
+		 * Resets the compiled access control, such that it is rebuilt on next access.
+		 *
+		 * @since 1.8
+		 */
+		public void resetAccessControl() {
+			accessControl = null;
+		}
+
+		/**
+		 * Returns the effective right of the user, this means, the maximal right of
+		 * the user grants, the grants of the user groups and the other right.
+		 *
+		 * @param user   The user.
+		 * @param groups The user groups.
+		 * @return The effective right. Null if no right is granted.
+		 * @since 1.8
+		 */
+		public Right getEffectiveRight(String user, Collection<String> groups) {
+			return getAccessControl().getEffectiveRight(user, groups);
+		}
+
+		/**
+		 * Defines compiled access controls. The targets of the user and group grants
+		 * are mapped to their maximal right, such that the effective right of a user
+		 * is resolved with one hash lookup for the user and every user group.
+		 *
+		 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+		 * @version 1.0
+		 * @since 1.8
+		 */
+		public static class AccessControl {
+			/**
+			 * The maximal user rights. The key is the user.
+			 */
+			private final Map<String, Right> users;
+
+			/**
+			 * The maximal group rights. The key is the group.
+			 */
+			private final Map<String, Right> groups;
+
+			/**
+			 * The other right.
+			 */
+			private final Right other;
+
+			/**
+			 * Creates a compiled access control.
+			 *
+			 * @param security The security.
+			 * @since 1.8
+			 */
+			private AccessControl(Security security) {
+				super();
+
+				users = compile(security.getUsers());
+				groups = compile(security.getGroups());
+				other = security.getOther();
+			}
+
+			/**
+			 * Returns the maximal rights of the grant targets.
+			 *
+			 * @param grants The grants.
+			 * @return The maximal rights. The key is the target.
+			 * @since 1.8
+			 */
+			private static Map<String, Right> compile(Set<Grant> grants) {
+				if (grants == null || grants.isEmpty())
+					return Collections.emptyMap();
+
+				Map<String, Right> rights = new HashMap<>();
+				for (Grant grant : grants)
+					if (grant != null && grant.getRight() != null && grant.getTargets() != null)
+						for (String target : grant.getTargets())
+							rights.merge(target, grant.getRight(), Right::getMaximnal);
+
+				return rights;
+			}
+
+			/**
+			 * Returns the normalized target, this means, it is trimmed and converted to
+			 * lower case.
+			 *
+			 * @param target The target.
+			 * @return The normalized target. Null if the target is null or blank.
+			 * @since 1.8
+			 */
+			private static String normalize(String target) {
+				return target == null || target.isBlank() ? null : target.trim().toLowerCase();
+			}
+
+			/**
+			 * Returns the right of the user.
+			 *
+			 * @param user The user.
+			 * @return The right of the user. Null if no right is granted to the user.
+			 * @since 1.8
+			 */
+			public Right getUserRight(String user) {
+				user = normalize(user);
+
+				return user == null ? null : users.get(user);
+			}
+
+			/**
+			 * Returns the right of the group.
+			 *
+			 * @param group The group.
+			 * @return The right of the group. Null if no right is granted to the group.
+			 * @since 1.8
+			 */
+			public Right getGroupRight(String group) {
+				group = normalize(group);
+
+				return group == null ? null : groups.get(group);
+			}
+
+			/**
+			 * Returns the other right.
+			 *
+			 * @return The other right.
+			 * @since 1.8
+			 */
+			public Right getOther() {
+				return other;
+			}
+
+			/**
+			 * Returns the effective right of the user, this means, the maximal right of
+			 * the user grants, the grants of the user groups and the other right.
+			 *
+			 * @param user   The user.
+			 * @param groups The user groups.
+			 * @return The effective right. Null if no right is granted.
+			 * @since 1.8
+			 */
+			public Right getEffectiveRight(String user, Collection<String> groups) {
+				Right right = Right.getMaximnal(other, getUserRight(user));
+
+				if (groups != null && !this.groups.isEmpty())
+					for (String group : groups) {
+						if (right == Right.maximal)
+							break;
+
+						right = Right.getMaximnal(right, getGroupRight(group));
+					}
+
+				return right;
+			}
 		}
 
 		/**
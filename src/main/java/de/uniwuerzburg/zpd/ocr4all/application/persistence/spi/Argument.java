@@ -8,6 +8,7 @@
 package de.uniwuerzburg.zpd.ocr4all.application.persistence.spi;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Defines arguments.
@@ -47,4 +48,28 @@ public class Argument implements Serializable {
 		this.argument = argument;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(argument);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		else if (obj == null || getClass() != obj.getClass())
+			return false;
+		else
+			return Objects.equals(argument, ((Argument) obj).getArgument());
+	}
 }
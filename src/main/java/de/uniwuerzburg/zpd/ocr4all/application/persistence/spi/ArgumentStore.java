@@ -0,0 +1,393 @@
+/**
+ * File:     ArgumentStore.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.spi
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.spi;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Item;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.util.PersistenceTools;
+
+/**
+ * Defines content-addressed stores for service provider arguments. Identical
+ * argument sets are persisted once in the store repository and the service
+ * providers refer to them by their digest. The store keeps a private copy of
+ * every argument set and every resolved service provider receives its own
+ * modifiable copy of it, such that neither the writer of an argument set nor
+ * the readers share argument objects with the store or among each other.
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class ArgumentStore {
+	/**
+	 * The JSON object mapper to compute the digests.
+	 */
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * The store repository.
+	 */
+	private final Path repository;
+
+	/**
+	 * The persistence manager for the store repository.
+	 */
+	private final PersistenceManager persistenceManager;
+
+	/**
+	 * The private copies of the arguments. The key is the digest.
+	 */
+	private final Map<String, ServiceProvider> arguments = new HashMap<>();
+
+	/**
+	 * The size of the store repository when it was loaded last. It is -1 if the
+	 * store repository was not loaded yet.
+	 */
+	private long loaded = -1;
+
+	/**
+	 * Creates an argument store.
+	 *
+	 * @param repository The store repository.
+	 * @throws IllegalArgumentException Throws if the repository is null.
+	 * @since 1.8
+	 */
+	public ArgumentStore(Path repository) throws IllegalArgumentException {
+		super();
+
+		if (repository == null)
+			throw new IllegalArgumentException("ArgumentStore: the repository is mandatory.");
+
+		this.repository = repository;
+		persistenceManager = new PersistenceManager(repository, Type.service_provider_arguments_v1);
+	}
+
+	/**
+	 * Loads the store repository if it changed since it was loaded last. Since
+	 * the store repository is only appended, it changed if its size differs.
+	 * Several stores, also of other processes, may share the store repository.
+	 * Their entries are available after a reload, this means, the callers reload
+	 * on a miss.
+	 *
+	 * @throws IOException Throws if the store repository can not be read.
+	 * @since 1.8
+	 */
+	private void load() throws IOException {
+		long size = Files.exists(repository) ? Files.size(repository) : 0;
+		if (size != loaded) {
+			if (size > 0)
+				for (Entry entry : persistenceManager.getEntities(Entry.class))
+					if (entry.getDigest() != null && entry.getArguments() != null)
+						arguments.putIfAbsent(entry.getDigest(), copy(entry.getArguments()));
+
+			loaded = size;
+		}
+	}
+
+	/**
+	 * Returns a service provider holding deep copies of the argument lists of the
+	 * given service provider, this means, the lists and the arguments are copied.
+	 * The argument values are immutable and shared.
+	 *
+	 * @param serviceProvider The service provider.
+	 * @return The service provider with the copied arguments.
+	 * @since 1.8
+	 */
+	private static ServiceProvider copy(ServiceProvider serviceProvider) {
+		ServiceProvider copy = new ServiceProvider();
+
+		copy.setBooleans(copy(serviceProvider.getBooleans(), BooleanArgument::new));
+		copy.setDecimals(copy(serviceProvider.getDecimals(), DecimalArgument::new));
+		copy.setIntegers(copy(serviceProvider.getIntegers(), IntegerArgument::new));
+		copy.setStrings(copy(serviceProvider.getStrings(), StringArgument::new));
+		copy.setImages(copyValues(serviceProvider.getImages(), ImageArgument::new));
+		copy.setRecognitionModels(copyValues(serviceProvider.getRecognitionModels(), RecognitionModelArgument::new));
+		copy.setSelects(copyValues(serviceProvider.getSelects(), SelectArgument::new));
+
+		return copy;
+	}
+
+	/**
+	 * Returns a modifiable copy of the single value arguments.
+	 *
+	 * @param <V>       The value type.
+	 * @param <A>       The argument type.
+	 * @param arguments The arguments.
+	 * @param factory   The factory for the argument copies.
+	 * @return The copy of the arguments. Null if the arguments are null.
+	 * @since 1.8
+	 */
+	private static <V, A extends SingleValueArgument<V>> List<A> copy(List<A> arguments, Supplier<A> factory) {
+		if (arguments == null)
+			return null;
+
+		List<A> copy = new ArrayList<>(arguments.size());
+		for (A argument : arguments)
+			if (argument == null)
+				copy.add(null);
+			else {
+				A target = factory.get();
+
+				target.setArgument(argument.getArgument());
+				target.setValue(argument.getValue());
+
+				copy.add(target);
+			}
+
+		return copy;
+	}
+
+	/**
+	 * Returns a modifiable copy of the multiple value arguments. The value lists
+	 * are copied as well.
+	 *
+	 * @param <V>       The value type.
+	 * @param <A>       The argument type.
+	 * @param arguments The arguments.
+	 * @param factory   The factory for the argument copies.
+	 * @return The copy of the arguments. Null if the arguments are null.
+	 * @since 1.8
+	 */
+	private static <V, A extends MultipleValueArgument<V>> List<A> copyValues(List<A> arguments,
+			Supplier<A> factory) {
+		if (arguments == null)
+			return null;
+
+		List<A> copy = new ArrayList<>(arguments.size());
+		for (A argument : arguments)
+			if (argument == null)
+				copy.add(null);
+			else {
+				A target = factory.get();
+
+				target.setArgument(argument.getArgument());
+				target.setValues(argument.getValues() == null ? null : new ArrayList<>(argument.getValues()));
+
+				copy.add(target);
+			}
+
+		return copy;
+	}
+
+	/**
+	 * Returns the digest of the arguments of the service provider.
+	 *
+	 * @param serviceProvider The service provider.
+	 * @return The digest.
+	 * @throws IOException Throws if the arguments can not be serialized.
+	 * @since 1.8
+	 */
+	private String getDigest(ServiceProvider serviceProvider) throws IOException {
+		ServiceProvider block = new ServiceProvider();
+		block.setArguments(serviceProvider);
+
+		try {
+			return PersistenceTools.getDigest(objectMapper.writeValueAsString(block));
+		} catch (JsonProcessingException e) {
+			throw new IOException("ArgumentStore: troubles processing (parsing, generating) JSON - " + e.getMessage()
+					+ ".");
+		}
+	}
+
+	/**
+	 * Stores the arguments of the service provider if they are not already
+	 * available in the store.
+	 *
+	 * @param serviceProvider The service provider.
+	 * @return The digest of the arguments. Null if the service provider is null or
+	 *         does not embed arguments.
+	 * @throws IOException Throws if the store repository can not be read or
+	 *                     written.
+	 * @since 1.8
+	 */
+	public synchronized String store(ServiceProvider serviceProvider) throws IOException {
+		if (serviceProvider == null || !serviceProvider.isArguments())
+			return null;
+
+		String digest = getDigest(serviceProvider);
+		if (!arguments.containsKey(digest))
+			load();
+
+		if (!arguments.containsKey(digest)) {
+			ServiceProvider copy = copy(serviceProvider);
+
+			persistenceManager.persist(true, new Entry(digest, copy));
+			arguments.put(digest, copy);
+		}
+
+		return digest;
+	}
+
+	/**
+	 * Returns a modifiable copy of the arguments for the given digest.
+	 *
+	 * @param digest The digest.
+	 * @return The service provider holding the copy of the arguments. Null if the
+	 *         digest is unknown.
+	 * @throws IOException Throws if the store repository can not be read.
+	 * @since 1.8
+	 */
+	public synchronized ServiceProvider getArguments(String digest) throws IOException {
+		if (digest == null)
+			return null;
+
+		if (!arguments.containsKey(digest))
+			load();
+
+		ServiceProvider stored = arguments.get(digest);
+
+		return stored == null ? null : copy(stored);
+	}
+
+	/**
+	 * Detaches the arguments of the service provider, this means, the arguments
+	 * are stored and replaced by a reference to them.
+	 *
+	 * @param serviceProvider The service provider.
+	 * @return True if the arguments were detached.
+	 * @throws IOException Throws if the store repository can not be read or
+	 *                     written.
+	 * @since 1.8
+	 */
+	public boolean detach(ServiceProvider serviceProvider) throws IOException {
+		String digest = store(serviceProvider);
+		if (digest == null)
+			return false;
+
+		serviceProvider.setArguments(null);
+		serviceProvider.setArgumentsReference(digest);
+
+		return true;
+	}
+
+	/**
+	 * Resolves the referenced arguments of the service provider, this means, the
+	 * reference is replaced by a modifiable copy of the stored arguments.
+	 *
+	 * @param serviceProvider The service provider.
+	 * @return True if the service provider does not refer to arguments or the
+	 *         reference could be resolved. False if the reference is unknown.
+	 * @throws IOException Throws if the store repository can not be read.
+	 * @since 1.8
+	 */
+	public boolean resolve(ServiceProvider serviceProvider) throws IOException {
+		if (serviceProvider == null || serviceProvider.getArgumentsReference() == null)
+			return true;
+
+		ServiceProvider arguments = getArguments(serviceProvider.getArgumentsReference());
+		if (arguments == null)
+			return false;
+
+		serviceProvider.setArguments(arguments);
+		serviceProvider.setArgumentsReference(null);
+
+		return true;
+	}
+
+	/**
+	 * Defines entries of argument stores.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Entry extends Item {
+		/**
+		 * The serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The digest.
+		 */
+		private String digest = null;
+
+		/**
+		 * The arguments.
+		 */
+		@JsonProperty("service-provider")
+		private ServiceProvider arguments = null;
+
+		/**
+		 * Default constructor for an argument store entry.
+		 *
+		 * @since 1.8
+		 */
+		public Entry() {
+			super();
+		}
+
+		/**
+		 * Creates an argument store entry.
+		 *
+		 * @param digest    The digest.
+		 * @param arguments The arguments.
+		 * @since 1.8
+		 */
+		public Entry(String digest, ServiceProvider arguments) {
+			super();
+
+			this.digest = digest;
+			this.arguments = arguments;
+		}
+
+		/**
+		 * Returns the digest.
+		 *
+		 * @return The digest.
+		 * @since 1.8
+		 */
+		public String getDigest() {
+			return digest;
+		}
+
+		/**
+		 * Set the digest.
+		 *
+		 * @param digest The digest to set.
+		 * @since 1.8
+		 */
+		public void setDigest(String digest) {
+			this.digest = digest;
+		}
+
+		/**
+		 * Returns the arguments.
+		 *
+		 * @return The arguments.
+		 * @since 1.8
+		 */
+		public ServiceProvider getArguments() {
+			return arguments;
+		}
+
+		/**
+		 * Set the arguments.
+		 *
+		 * @param arguments The arguments to set.
+		 * @since 1.8
+		 */
+		public void setArguments(ServiceProvider arguments) {
+			this.arguments = arguments;
+		}
+	}
+}
@@ -7,8 +7,17 @@
  */
 package de.uniwuerzburg.zpd.ocr4all.application.persistence.spi;
 
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+
 /**
- * Defines boolean arguments.
+ * Defines boolean arguments. The value is stored as primitive with a presence flag,
+ * this means, no Boolean object is allocated per argument. The JSON representation
+ * is the same as the one of the boxed value.
  *
  * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
  * @version 1.0
@@ -18,6 +27,119 @@ public class BooleanArgument extends SingleValueArgument<Boolean> {
 	/**
 	 * The serial version UID.
 	 */
-	private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 2L;
+
+	/**
+	 * The primitive value. It is only significant if the value is set.
+	 */
+	private boolean primitive = false;
+
+	/**
+	 * True if the value is set.
+	 */
+	private boolean isSet = false;
+
+	/**
+	 * Returns true if the value is set.
+	 *
+	 * @return True if the value is set.
+	 * @since 1.8
+	 */
+	@JsonIgnore
+	public boolean isValue() {
+		return isSet;
+	}
+
+	/**
+	 * Returns the value.
+	 *
+	 * @param defaultValue The default value if the value is not set.
+	 * @return The value.
+	 * @since 1.8
+	 */
+	public boolean getValue(boolean defaultValue) {
+		return isSet ? primitive : defaultValue;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.
+	 * SingleValueArgument#getValue()
+	 */
+	@Override
+	public Boolean getValue() {
+		return isSet ? primitive : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.
+	 * SingleValueArgument#setValue(java.lang.Object)
+	 */
+	@Override
+	public void setValue(Boolean value) {
+		if (value == null)
+			removeValue();
+		else
+			setValue(value.booleanValue());
+	}
+
+	/**
+	 * Set the value. The JSON values are deserialized with this method, such
+	 * that no Boolean object is allocated. Null JSON values are skipped, this
+	 * means, the value remains unset.
+	 *
+	 * @param value The value to set.
+	 * @since 1.8
+	 */
+	@JsonProperty("value")
+	@JsonSetter(nulls = Nulls.SKIP)
+	public void setValue(boolean value) {
+		primitive = value;
+		isSet = true;
+	}
+
+	/**
+	 * Removes the value, this means, the value is not set.
+	 *
+	 * @since 1.8
+	 */
+	public void removeValue() {
+		primitive = false;
+		isSet = false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.SingleValueArgument#
+	 * hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * Objects.hashCode(getArgument()) + (isSet ? Boolean.hashCode(primitive) : 0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.SingleValueArgument#
+	 * equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		else if (obj == null || getClass() != obj.getClass())
+			return false;
+
+		BooleanArgument other = (BooleanArgument) obj;
 
+		return Objects.equals(getArgument(), other.getArgument()) && isSet == other.isSet
+				&& (!isSet || primitive == other.primitive);
+	}
 }
@@ -8,6 +8,7 @@
 package de.uniwuerzburg.zpd.ocr4all.application.persistence.spi;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Defines multiple value arguments.
@@ -48,4 +49,23 @@ public class MultipleValueArgument<V> extends Argument {
 		this.values = values;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * super.hashCode() + Objects.hashCode(values);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return super.equals(obj) && Objects.equals(values, ((MultipleValueArgument<?>) obj).getValues());
+	}
 }
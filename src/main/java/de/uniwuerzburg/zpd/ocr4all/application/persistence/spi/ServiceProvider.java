@@ -8,8 +8,14 @@
 package de.uniwuerzburg.zpd.ocr4all.application.persistence.spi;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -66,6 +72,25 @@ public class ServiceProvider implements Serializable {
 	 */
 	private List<SelectArgument> selects;
 
+	/**
+	 * The reference to the arguments in an argument store. Null if the arguments
+	 * are embedded.
+	 */
+	@JsonProperty("arguments-reference")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String argumentsReference = null;
+
+	/**
+	 * The arguments index. The key is the argument name. Null if the index is
+	 * not built yet.
+	 */
+	private transient volatile Map<String, Argument> index = null;
+
+	/**
+	 * The fingerprint of the id and arguments. Null if it is not computed yet.
+	 */
+	private transient volatile Integer fingerprint = null;
+
 	/**
 	 * Default constructor for a service provider.
 	 * 
@@ -87,6 +112,31 @@ public class ServiceProvider implements Serializable {
 		if (serviceProvider != null) {
 			id = serviceProvider.getId() == null || serviceProvider.getId().isBlank() ? null
 					: serviceProvider.getId().trim();
+
+			setArguments(serviceProvider);
+			argumentsReference = serviceProvider.getArgumentsReference();
+		}
+	}
+
+	/**
+	 * Set the arguments, this means, the boolean, decimal, integer, string, image,
+	 * recognition model and select arguments, using the arguments of given service
+	 * provider. The argument lists are shared, not copied.
+	 * 
+	 * @param serviceProvider The source service provider. If null, the arguments
+	 *                        are cleared.
+	 * @since 1.8
+	 */
+	public void setArguments(ServiceProvider serviceProvider) {
+		if (serviceProvider == null) {
+			booleans = null;
+			decimals = null;
+			integers = null;
+			strings = null;
+			images = null;
+			recognitionModels = null;
+			selects = null;
+		} else {
 			booleans = serviceProvider.getBooleans();
 			decimals = serviceProvider.getDecimals();
 			integers = serviceProvider.getIntegers();
@@ -95,6 +145,20 @@ public class ServiceProvider implements Serializable {
 			recognitionModels = serviceProvider.getRecognitionModels();
 			selects = serviceProvider.getSelects();
 		}
+
+		resetIndex();
+	}
+
+	/**
+	 * Returns true if the service provider embeds arguments.
+	 * 
+	 * @return True if the service provider embeds arguments.
+	 * @since 1.8
+	 */
+	@JsonIgnore
+	public boolean isArguments() {
+		return booleans != null || decimals != null || integers != null || strings != null || images != null
+				|| recognitionModels != null || selects != null;
 	}
 
 	/**
@@ -115,6 +179,8 @@ public class ServiceProvider implements Serializable {
 	 */
 	public void setId(String id) {
 		this.id = id;
+
+		fingerprint = null;
 	}
 
 	/**
@@ -135,6 +201,8 @@ public class ServiceProvider implements Serializable {
 	 */
 	public void setBooleans(List<BooleanArgument> booleans) {
 		this.booleans = booleans;
+
+		resetIndex();
 	}
 
 	/**
@@ -155,6 +223,8 @@ public class ServiceProvider implements Serializable {
 	 */
 	public void setDecimals(List<DecimalArgument> decimals) {
 		this.decimals = decimals;
+
+		resetIndex();
 	}
 
 	/**
@@ -175,6 +245,8 @@ public class ServiceProvider implements Serializable {
 	 */
 	public void setIntegers(List<IntegerArgument> integers) {
 		this.integers = integers;
+
+		resetIndex();
 	}
 
 	/**
@@ -195,6 +267,8 @@ public class ServiceProvider implements Serializable {
 	 */
 	public void setStrings(List<StringArgument> strings) {
 		this.strings = strings;
+
+		resetIndex();
 	}
 
 	/**
@@ -215,6 +289,8 @@ public class ServiceProvider implements Serializable {
 	 */
 	public void setImages(List<ImageArgument> images) {
 		this.images = images;
+
+		resetIndex();
 	}
 
 	/**
@@ -235,6 +311,8 @@ public class ServiceProvider implements Serializable {
 	 */
 	public void setRecognitionModels(List<RecognitionModelArgument> recognitionModels) {
 		this.recognitionModels = recognitionModels;
+
+		resetIndex();
 	}
 
 	/**
@@ -255,6 +333,230 @@ public class ServiceProvider implements Serializable {
 	 */
 	public void setSelects(List<SelectArgument> selects) {
 		this.selects = selects;
+
+		resetIndex();
+	}
+
+	/**
+	 * Returns the reference to the arguments in an argument store.
+	 *
+	 * @return The reference to the arguments. Null if the arguments are embedded.
+	 * @since 1.8
+	 */
+	public String getArgumentsReference() {
+		return argumentsReference;
+	}
+
+	/**
+	 * Set the reference to the arguments in an argument store.
+	 *
+	 * @param reference The reference to set. Null if the arguments are embedded.
+	 * @since 1.8
+	 */
+	public void setArgumentsReference(String reference) {
+		argumentsReference = reference == null || reference.isBlank() ? null : reference.trim();
+	}
+
+	/**
+	 * Resets the arguments index and the fingerprint. They are reset
+	 * automatically when the id or the argument lists are set, but have to be
+	 * reset explicitly after the argument lists or arguments were modified in
+	 * place.
+	 * 
+	 * @since 1.8
+	 */
+	public void resetIndex() {
+		index = null;
+		fingerprint = null;
+	}
+
+	/**
+	 * Returns the arguments index. It is built lazily. If an argument name
+	 * occurs several times, the first occurrence in the order booleans,
+	 * decimals, integers, strings, images, recognition models and selects is
+	 * indexed.
+	 * 
+	 * @return The arguments index. The key is the argument name.
+	 * @since 1.8
+	 */
+	private Map<String, Argument> getIndex() {
+		Map<String, Argument> index = this.index;
+
+		if (index == null) {
+			index = new HashMap<>();
+
+			for (List<? extends Argument> arguments : List.of(getList(booleans), getList(decimals),
+					getList(integers), getList(strings), getList(images), getList(recognitionModels),
+					getList(selects)))
+				for (Argument argument : arguments)
+					if (argument != null && argument.getArgument() != null)
+						index.putIfAbsent(argument.getArgument(), argument);
+
+			this.index = index;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Returns the list or an empty list if it is null.
+	 * 
+	 * @param <T>  The element type.
+	 * @param list The list.
+	 * @return The list. Empty if it is null.
+	 * @since 1.8
+	 */
+	private static <T> List<T> getList(List<T> list) {
+		return list == null ? Collections.emptyList() : list;
+	}
+
+	/**
+	 * Returns the argument.
+	 * 
+	 * @param name The argument name.
+	 * @return The argument. Null if not available.
+	 * @since 1.8
+	 */
+	public Argument getArgument(String name) {
+		return name == null ? null : getIndex().get(name);
+	}
+
+	/**
+	 * Returns true if the argument is available.
+	 * 
+	 * @param name The argument name.
+	 * @return True if the argument is available.
+	 * @since 1.8
+	 */
+	public boolean isArgument(String name) {
+		return getArgument(name) != null;
+	}
+
+	/**
+	 * Returns the boolean argument value.
+	 * 
+	 * @param name         The argument name.
+	 * @param defaultValue The default value if the argument or its value is not
+	 *                     available.
+	 * @return The boolean argument value.
+	 * @since 1.8
+	 */
+	public boolean getBoolean(String name, boolean defaultValue) {
+		Argument argument = getArgument(name);
+		return argument instanceof BooleanArgument ? ((BooleanArgument) argument).getValue(defaultValue)
+				: defaultValue;
+	}
+
+	/**
+	 * Returns the integer argument value.
+	 * 
+	 * @param name         The argument name.
+	 * @param defaultValue The default value if the argument or its value is not
+	 *                     available.
+	 * @return The integer argument value.
+	 * @since 1.8
+	 */
+	public int getInt(String name, int defaultValue) {
+		Argument argument = getArgument(name);
+		return argument instanceof IntegerArgument ? ((IntegerArgument) argument).getValue(defaultValue)
+				: defaultValue;
+	}
+
+	/**
+	 * Returns the decimal argument value.
+	 * 
+	 * @param name         The argument name.
+	 * @param defaultValue The default value if the argument or its value is not
+	 *                     available.
+	 * @return The decimal argument value.
+	 * @since 1.8
+	 */
+	public float getFloat(String name, float defaultValue) {
+		Argument argument = getArgument(name);
+		return argument instanceof DecimalArgument ? ((DecimalArgument) argument).getValue(defaultValue)
+				: defaultValue;
+	}
+
+	/**
+	 * Returns the string argument value.
+	 * 
+	 * @param name The argument name.
+	 * @return The string argument value. Null if the argument or its value is not
+	 *         available.
+	 * @since 1.8
+	 */
+	public String getString(String name) {
+		Argument argument = getArgument(name);
+
+		return argument instanceof StringArgument ? ((StringArgument) argument).getValue() : null;
+	}
+
+	/**
+	 * Returns the values of the image, recognition model or select argument.
+	 * 
+	 * @param name The argument name.
+	 * @return The argument values. Null if the argument or its values are not
+	 *         available.
+	 * @since 1.8
+	 */
+	public List<String> getValues(String name) {
+		Argument argument = getArgument(name);
+
+		if (argument instanceof ImageArgument)
+			return ((ImageArgument) argument).getValues();
+		else if (argument instanceof RecognitionModelArgument)
+			return ((RecognitionModelArgument) argument).getValues();
+		else if (argument instanceof SelectArgument)
+			return ((SelectArgument) argument).getValues();
+		else
+			return null;
+	}
+
+	/**
+	 * Returns the fingerprint of the id and arguments. It is computed lazily and
+	 * cached until {@link #resetIndex()}. Service providers with equal arguments
+	 * have equal fingerprints.
+	 * 
+	 * @return The fingerprint.
+	 * @since 1.8
+	 */
+	@JsonIgnore
+	public int getFingerprint() {
+		Integer fingerprint = this.fingerprint;
+
+		if (fingerprint == null) {
+			fingerprint = Objects.hash(id, booleans, decimals, integers, strings, images, recognitionModels,
+					selects);
+
+			this.fingerprint = fingerprint;
+		}
+
+		return fingerprint;
+	}
+
+	/**
+	 * Returns true if the service providers have the same id and arguments. The
+	 * arguments are compared directly, such that the comparison stops at the
+	 * first difference and does not depend on a cached state.
+	 * 
+	 * @param serviceProvider The service provider to compare.
+	 * @return True if the service providers have the same id and arguments.
+	 * @since 1.8
+	 */
+	public boolean isEqualConfiguration(ServiceProvider serviceProvider) {
+		if (serviceProvider == this)
+			return true;
+		else if (serviceProvider == null)
+			return false;
+		else
+			return Objects.equals(id, serviceProvider.getId())
+					&& Objects.equals(booleans, serviceProvider.getBooleans())
+					&& Objects.equals(decimals, serviceProvider.getDecimals())
+					&& Objects.equals(integers, serviceProvider.getIntegers())
+					&& Objects.equals(strings, serviceProvider.getStrings())
+					&& Objects.equals(images, serviceProvider.getImages())
+					&& Objects.equals(recognitionModels, serviceProvider.getRecognitionModels())
+					&& Objects.equals(selects, serviceProvider.getSelects());
 	}
 
 }
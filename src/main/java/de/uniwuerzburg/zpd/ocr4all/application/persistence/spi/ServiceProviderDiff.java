@@ -0,0 +1,388 @@
+/**
+ * File:     ServiceProviderDiff.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.spi
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.spi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Defines structural differences between two service provider configurations.
+ * The arguments of the argument categories are matched by their names, such
+ * that the added, removed and changed arguments are available per category.
+ * The comparison runs in linear time. If both lists declare the same arguments
+ * in the same order, which is the common case for runs of the same processor,
+ * they are compared pairwise without building a name index.
+ *
+ * <p>
+ * Only the embedded arguments are compared. If an argument name is declared
+ * several times in a list, the first occurrence is significant, as for
+ * {@link ServiceProvider#getArgument(String)}.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class ServiceProviderDiff {
+	/**
+	 * Defines the argument categories, this means, the typed argument lists.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public enum Category {
+		booleans, decimals, integers, strings, images, recognitionModels, selects
+	}
+
+	/**
+	 * The changes in the order of the argument categories.
+	 */
+	private final List<Change> changes = new ArrayList<>();
+
+	/**
+	 * True if the ids differ.
+	 */
+	private final boolean isIdChanged;
+
+	/**
+	 * True if the references to the arguments in an argument store differ.
+	 */
+	private final boolean isArgumentsReferenceChanged;
+
+	/**
+	 * Creates a structural difference between two service provider
+	 * configurations.
+	 *
+	 * @param source The source service provider. If null, all arguments of the
+	 *               target are added.
+	 * @param target The target service provider. If null, all arguments of the
+	 *               source are removed.
+	 * @since 1.8
+	 */
+	public ServiceProviderDiff(ServiceProvider source, ServiceProvider target) {
+		super();
+
+		isIdChanged = !Objects.equals(source == null ? null : source.getId(), target == null ? null : target.getId());
+		isArgumentsReferenceChanged = !Objects.equals(source == null ? null : source.getArgumentsReference(),
+				target == null ? null : target.getArgumentsReference());
+
+		compare(Category.booleans, source == null ? null : source.getBooleans(),
+				target == null ? null : target.getBooleans());
+		compare(Category.decimals, source == null ? null : source.getDecimals(),
+				target == null ? null : target.getDecimals());
+		compare(Category.integers, source == null ? null : source.getIntegers(),
+				target == null ? null : target.getIntegers());
+		compare(Category.strings, source == null ? null : source.getStrings(),
+				target == null ? null : target.getStrings());
+		compare(Category.images, source == null ? null : source.getImages(),
+				target == null ? null : target.getImages());
+		compare(Category.recognitionModels, source == null ? null : source.getRecognitionModels(),
+				target == null ? null : target.getRecognitionModels());
+		compare(Category.selects, source == null ? null : source.getSelects(),
+				target == null ? null : target.getSelects());
+	}
+
+	/**
+	 * Compares the typed argument lists and adds the changes.
+	 *
+	 * @param category The argument category.
+	 * @param source   The source arguments. Null if not available.
+	 * @param target   The target arguments. Null if not available.
+	 * @since 1.8
+	 */
+	private void compare(Category category, List<? extends Argument> source, List<? extends Argument> target) {
+		if (source == null)
+			source = Collections.emptyList();
+		if (target == null)
+			target = Collections.emptyList();
+
+		/*
+		 * Pairwise while the arguments are declared in the same order. Only the first
+		 * occurrence of a name is compared.
+		 */
+		Set<String> names = new HashSet<>();
+		int index = 0;
+		for (int size = Math.min(source.size(), target.size()); index < size; index++) {
+			Argument sourceArgument = source.get(index);
+			Argument targetArgument = target.get(index);
+
+			if (sourceArgument == null || targetArgument == null
+					|| !Objects.equals(sourceArgument.getArgument(), targetArgument.getArgument()))
+				break;
+
+			if (names.add(sourceArgument.getArgument()) && !sourceArgument.equals(targetArgument))
+				changes.add(new Change(category, sourceArgument, targetArgument));
+		}
+
+		if (index == source.size() && index == target.size())
+			return;
+
+		/*
+		 * Keyed matching for the remaining arguments. The pairwise matched arguments
+		 * are registered first, such that their later duplicates are ignored.
+		 */
+		Map<String, Argument> sources = new HashMap<>();
+		Map<String, Argument> targets = new HashMap<>();
+		for (int i = 0; i < index; i++) {
+			sources.putIfAbsent(source.get(i).getArgument(), source.get(i));
+			targets.putIfAbsent(target.get(i).getArgument(), target.get(i));
+		}
+
+		for (int i = index; i < source.size(); i++) {
+			Argument argument = source.get(i);
+			if (argument != null)
+				sources.putIfAbsent(argument.getArgument(), argument);
+		}
+
+		for (int i = index; i < target.size(); i++) {
+			Argument argument = target.get(i);
+			if (argument != null && targets.putIfAbsent(argument.getArgument(), argument) == null) {
+				Argument sourceArgument = sources.get(argument.getArgument());
+
+				if (sourceArgument == null)
+					changes.add(new Change(category, null, argument));
+				else if (!sourceArgument.equals(argument))
+					changes.add(new Change(category, sourceArgument, argument));
+			}
+		}
+
+		for (int i = index; i < source.size(); i++) {
+			Argument argument = source.get(i);
+			if (argument != null && !targets.containsKey(argument.getArgument())
+					&& sources.get(argument.getArgument()) == argument)
+				changes.add(new Change(category, argument, null));
+		}
+	}
+
+	/**
+	 * Returns true if the configurations do not differ.
+	 *
+	 * @return True if the configurations do not differ.
+	 * @since 1.8
+	 */
+	public boolean isEmpty() {
+		return !isIdChanged && !isArgumentsReferenceChanged && changes.isEmpty();
+	}
+
+	/**
+	 * Returns true if the ids differ.
+	 *
+	 * @return True if the ids differ.
+	 * @since 1.8
+	 */
+	public boolean isIdChanged() {
+		return isIdChanged;
+	}
+
+	/**
+	 * Returns true if the references to the arguments in an argument store
+	 * differ.
+	 *
+	 * @return True if the references to the arguments in an argument store
+	 *         differ.
+	 * @since 1.8
+	 */
+	public boolean isArgumentsReferenceChanged() {
+		return isArgumentsReferenceChanged;
+	}
+
+	/**
+	 * Returns the changes.
+	 *
+	 * @return The changes in the order of the argument categories.
+	 * @since 1.8
+	 */
+	public List<Change> getChanges() {
+		return Collections.unmodifiableList(changes);
+	}
+
+	/**
+	 * Returns the changes of the argument category.
+	 *
+	 * @param category The argument category.
+	 * @return The changes of the argument category.
+	 * @since 1.8
+	 */
+	public List<Change> getChanges(Category category) {
+		List<Change> changes = new ArrayList<>();
+		for (Change change : this.changes)
+			if (change.getCategory() == category)
+				changes.add(change);
+
+		return changes;
+	}
+
+	/**
+	 * Returns the arguments of the argument category that are only available in
+	 * the target.
+	 *
+	 * @param category The argument category.
+	 * @return The added arguments.
+	 * @since 1.8
+	 */
+	public List<Argument> getAdded(Category category) {
+		List<Argument> arguments = new ArrayList<>();
+		for (Change change : changes)
+			if (change.getCategory() == category && change.isAdded())
+				arguments.add(change.getTarget());
+
+		return arguments;
+	}
+
+	/**
+	 * Returns the arguments of the argument category that are only available in
+	 * the source.
+	 *
+	 * @param category The argument category.
+	 * @return The removed arguments.
+	 * @since 1.8
+	 */
+	public List<Argument> getRemoved(Category category) {
+		List<Argument> arguments = new ArrayList<>();
+		for (Change change : changes)
+			if (change.getCategory() == category && change.isRemoved())
+				arguments.add(change.getSource());
+
+		return arguments;
+	}
+
+	/**
+	 * Returns the changes of the argument category whose arguments are available
+	 * in the source and target, but with different values.
+	 *
+	 * @param category The argument category.
+	 * @return The changed arguments.
+	 * @since 1.8
+	 */
+	public List<Change> getChanged(Category category) {
+		List<Change> changes = new ArrayList<>();
+		for (Change change : this.changes)
+			if (change.getCategory() == category && change.isChanged())
+				changes.add(change);
+
+		return changes;
+	}
+
+	/**
+	 * Defines argument changes.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Change {
+		/**
+		 * The argument category.
+		 */
+		private final Category category;
+
+		/**
+		 * The source argument. Null if the argument was added.
+		 */
+		private final Argument source;
+
+		/**
+		 * The target argument. Null if the argument was removed.
+		 */
+		private final Argument target;
+
+		/**
+		 * Creates an argument change.
+		 *
+		 * @param category The argument category.
+		 * @param source   The source argument. Null if the argument was added.
+		 * @param target   The target argument. Null if the argument was removed.
+		 * @since 1.8
+		 */
+		private Change(Category category, Argument source, Argument target) {
+			super();
+
+			this.category = category;
+			this.source = source;
+			this.target = target;
+		}
+
+		/**
+		 * Returns the argument category.
+		 *
+		 * @return The argument category.
+		 * @since 1.8
+		 */
+		public Category getCategory() {
+			return category;
+		}
+
+		/**
+		 * Returns the argument name.
+		 *
+		 * @return The argument name.
+		 * @since 1.8
+		 */
+		public String getArgument() {
+			return source == null ? target.getArgument() : source.getArgument();
+		}
+
+		/**
+		 * Returns the source argument.
+		 *
+		 * @return The source argument. Null if the argument was added.
+		 * @since 1.8
+		 */
+		public Argument getSource() {
+			return source;
+		}
+
+		/**
+		 * Returns the target argument.
+		 *
+		 * @return The target argument. Null if the argument was removed.
+		 * @since 1.8
+		 */
+		public Argument getTarget() {
+			return target;
+		}
+
+		/**
+		 * Returns true if the argument is only available in the target.
+		 *
+		 * @return True if the argument is only available in the target.
+		 * @since 1.8
+		 */
+		public boolean isAdded() {
+			return source == null;
+		}
+
+		/**
+		 * Returns true if the argument is only available in the source.
+		 *
+		 * @return True if the argument is only available in the source.
+		 * @since 1.8
+		 */
+		public boolean isRemoved() {
+			return target == null;
+		}
+
+		/**
+		 * Returns true if the argument is available in the source and target, but
+		 * with different values.
+		 *
+		 * @return True if the argument value changed.
+		 * @since 1.8
+		 */
+		public boolean isChanged() {
+			return source != null && target != null;
+		}
+	}
+}
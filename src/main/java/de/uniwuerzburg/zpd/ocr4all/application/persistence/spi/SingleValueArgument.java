@@ -7,8 +7,12 @@
  */
 package de.uniwuerzburg.zpd.ocr4all.application.persistence.spi;
 
+import java.util.Objects;
+
 /**
- * Defines single value arguments.
+ * Defines single value arguments. Subclasses may store the value in a field of
+ * their own, for instance, a primitive one, and override {@link #getValue()}
+ * and {@link #setValue(Object)}. The value field of this class is then unused.
  *
  * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
  * @version 1.0
@@ -46,4 +50,23 @@ public class SingleValueArgument<V> extends Argument {
 		this.value = value;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * super.hashCode() + Objects.hashCode(getValue());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return super.equals(obj) && Objects.equals(getValue(), ((SingleValueArgument<?>) obj).getValue());
+	}
 }
@@ -7,11 +7,21 @@
  */
 package de.uniwuerzburg.zpd.ocr4all.application.persistence.util;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
 
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.Entity;
 import de.uniwuerzburg.zpd.ocr4all.application.persistence.Tracking;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.job.ProcessHistory;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.project.sandbox.Snapshot;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.ServiceProvider;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow.Processor;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow.Workflow;
 
 /**
  * Defines persistence tools.
@@ -51,4 +61,56 @@ public class PersistenceTools {
 			}
 		};
 	}
+
+	/**
+	 * Returns the SHA-256 digest of the content as hexadecimal string.
+	 * 
+	 * @param content The content.
+	 * @return The digest. Null if the content is null.
+	 * @since 1.8
+	 */
+	public static String getDigest(String content) {
+		if (content == null)
+			return null;
+
+		try {
+			StringBuilder buffer = new StringBuilder();
+			for (byte value : MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)))
+				buffer.append(String.format("%02x", value));
+
+			return buffer.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is supported by every Java platform
+			throw new IllegalStateException("PersistenceTools: SHA-256 is not available - " + e.getMessage() + ".");
+		}
+	}
+
+	/**
+	 * Returns the service providers that are embedded in the entity, this means,
+	 * the service provider of snapshots and process histories and the processors
+	 * of workflows.
+	 * 
+	 * @param entity The entity.
+	 * @return The service providers. Empty if the entity does not embed service
+	 *         providers.
+	 * @since 1.8
+	 */
+	public static List<ServiceProvider> getServiceProviders(Entity entity) {
+		List<ServiceProvider> serviceProviders = new ArrayList<>();
+
+		if (entity instanceof Snapshot) {
+			if (((Snapshot) entity).getServiceProvider() != null)
+				serviceProviders.add(((Snapshot) entity).getServiceProvider());
+		} else if (entity instanceof ProcessHistory) {
+			if (((ProcessHistory) entity).getServiceProvider() != null)
+				serviceProviders.add(((ProcessHistory) entity).getServiceProvider());
+		} else if (entity instanceof Workflow) {
+			if (((Workflow) entity).getProcessors() != null)
+				for (Processor processor : ((Workflow) entity).getProcessors())
+					if (processor != null)
+						serviceProviders.add(processor);
+		}
+
+		return serviceProviders;
+	}
 }
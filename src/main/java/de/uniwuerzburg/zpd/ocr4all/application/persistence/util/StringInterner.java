@@ -0,0 +1,120 @@
+/**
+ * File:     StringInterner.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.util
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Defines bounded string interners. Equal strings are canonicalized to the same
+ * instance, such that repeated low-cardinality values share their memory. If
+ * the capacity is exceeded, the least recently used strings are evicted.
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class StringInterner {
+	/**
+	 * The default capacity.
+	 */
+	public static final int defaultCapacity = 4096;
+
+	/**
+	 * The capacity.
+	 */
+	private final int capacity;
+
+	/**
+	 * The canonical strings in access order.
+	 */
+	private final Map<String, String> strings;
+
+	/**
+	 * Creates a string interner with default capacity.
+	 *
+	 * @since 1.8
+	 */
+	public StringInterner() {
+		this(defaultCapacity);
+	}
+
+	/**
+	 * Creates a string interner.
+	 *
+	 * @param capacity The capacity. If less than 1, the default capacity is used.
+	 * @since 1.8
+	 */
+	public StringInterner(int capacity) {
+		super();
+
+		this.capacity = capacity < 1 ? defaultCapacity : capacity;
+
+		strings = new LinkedHashMap<>(16, 0.75f, true) {
+			/**
+			 * The serial version UID.
+			 */
+			private static final long serialVersionUID = 1L;
+
+			/*
+			 * (non-Javadoc)
+			 *
+			 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+			 */
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > StringInterner.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the capacity.
+	 *
+	 * @return The capacity.
+	 * @since 1.8
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the canonical instance of the string.
+	 *
+	 * @param value The string.
+	 * @return The canonical instance. Null if the string is null.
+	 * @since 1.8
+	 */
+	public synchronized String intern(String value) {
+		if (value == null)
+			return null;
+
+		String canonical = strings.putIfAbsent(value, value);
+
+		return canonical == null ? value : canonical;
+	}
+
+	/**
+	 * Returns the number of canonical strings.
+	 *
+	 * @return The number of canonical strings.
+	 * @since 1.8
+	 */
+	public synchronized int size() {
+		return strings.size();
+	}
+
+	/**
+	 * Removes all canonical strings.
+	 *
+	 * @since 1.8
+	 */
+	public synchronized void clear() {
+		strings.clear();
+	}
+}
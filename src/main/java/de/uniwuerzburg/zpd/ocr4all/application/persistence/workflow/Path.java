@@ -10,13 +10,18 @@ package de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow;
 import java.io.Serializable;
 import java.util.List;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 /**
- * Defines paths.
+ * Defines paths. The path trees are serialized iteratively by the path codec.
  *
  * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
  * @version 1.0
  * @since 1.8
  */
+@JsonSerialize(using = PathCodec.Serializer.class)
+@JsonDeserialize(using = PathCodec.Deserializer.class)
 public class Path implements Serializable {
 	/**
 	 * The serial version UID.
@@ -0,0 +1,501 @@
+/**
+ * File:     PathCodec.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Defines codecs for path trees. The trees are encoded and decoded iteratively,
+ * thus, deep trees do not exhaust the stack.
+ *
+ * <p>
+ * A path tree is persisted either in the nested JSON form, this means, every
+ * path is an object with its id and children, or in the flattened form, this
+ * means, an array of the paths in pre-order with their numbers of children.
+ * The nested form is used as long as the tree depth does not exceed the
+ * nesting threshold, such that the repositories remain readable by former
+ * versions. Deeper trees are flattened, since JSON parsers limit the nesting
+ * depth of documents. Both forms are read.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class PathCodec {
+	/**
+	 * The maximal tree depth that is persisted in the nested form.
+	 */
+	public static final int nestingThreshold = 256;
+
+	/**
+	 * The id field name.
+	 */
+	private static final String idField = "id";
+
+	/**
+	 * The children field name.
+	 */
+	private static final String childrenField = "children";
+
+	/**
+	 * Default constructor for a path codec.
+	 *
+	 * @since 1.8
+	 */
+	private PathCodec() {
+		super();
+	}
+
+	/**
+	 * Returns the depth of the path tree, this means, the number of paths on the
+	 * longest branch.
+	 *
+	 * @param path The root path.
+	 * @return The depth. It is 0 if the path is null.
+	 * @since 1.8
+	 */
+	public static int getDepth(Path path) {
+		int depth = 0;
+
+		Deque<Path> paths = new ArrayDeque<>();
+		Deque<Integer> levels = new ArrayDeque<>();
+		if (path != null) {
+			paths.push(path);
+			levels.push(1);
+		}
+
+		while (!paths.isEmpty()) {
+			Path current = paths.pop();
+			int level = levels.pop();
+			depth = Math.max(depth, level);
+
+			if (current.getChildren() != null)
+				for (Path child : current.getChildren())
+					if (child != null) {
+						paths.push(child);
+						levels.push(level + 1);
+					}
+		}
+
+		return depth;
+	}
+
+	/**
+	 * Returns the flattened path tree, this means, the paths in pre-order with
+	 * their numbers of children.
+	 *
+	 * @param path The root path.
+	 * @return The flattened path tree. Empty if the path is null.
+	 * @since 1.8
+	 */
+	public static List<Entry> flatten(Path path) {
+		List<Entry> entries = new ArrayList<>();
+		if (path == null)
+			return entries;
+
+		// The stack of paths to visit. It is a list, since children may be null.
+		List<Path> paths = new ArrayList<>();
+		paths.add(path);
+
+		while (!paths.isEmpty()) {
+			Path current = paths.remove(paths.size() - 1);
+			if (current == null) {
+				entries.add(null);
+
+				continue;
+			}
+
+			List<Path> children = current.getChildren();
+			entries.add(new Entry(current.getId(), children == null ? -1 : children.size()));
+
+			if (children != null)
+				for (int i = children.size() - 1; i >= 0; i--)
+					paths.add(children.get(i));
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Returns the path tree of the flattened one.
+	 *
+	 * @param entries The flattened path tree, this means, the paths in pre-order
+	 *                with their numbers of children.
+	 * @return The root path. Null if no entries are available or the root is
+	 *         null.
+	 * @throws IllegalArgumentException Throws if the entries do not form a single
+	 *                                  tree.
+	 * @since 1.8
+	 */
+	public static Path unflatten(List<Entry> entries) throws IllegalArgumentException {
+		if (entries == null || entries.isEmpty())
+			return null;
+
+		Path root = null;
+
+		// The paths with missing children and their remaining numbers of children
+		Deque<Path> parents = new ArrayDeque<>();
+		Deque<Integer> remainders = new ArrayDeque<>();
+
+		for (int i = 0; i < entries.size(); i++) {
+			if (i > 0 && parents.isEmpty())
+				throw new IllegalArgumentException("PathCodec: the flattened paths contain several trees.");
+
+			Entry entry = entries.get(i);
+
+			Path path = null;
+			if (entry != null) {
+				path = new Path();
+				path.setId(entry.getId());
+
+				if (entry.getChildren() >= 0)
+					path.setChildren(new ArrayList<>(entry.getChildren()));
+			}
+
+			if (i == 0)
+				root = path;
+			else {
+				parents.peek().getChildren().add(path);
+				remainders.push(remainders.pop() - 1);
+			}
+
+			while (!remainders.isEmpty() && remainders.peek() == 0) {
+				parents.pop();
+				remainders.pop();
+			}
+
+			if (entry != null && entry.getChildren() > 0) {
+				parents.push(path);
+				remainders.push(entry.getChildren());
+			}
+		}
+
+		if (!parents.isEmpty())
+			throw new IllegalArgumentException("PathCodec: the flattened paths are incomplete.");
+
+		return root;
+	}
+
+	/**
+	 * Defines flattened path entries.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Entry {
+		/**
+		 * The id.
+		 */
+		private final String id;
+
+		/**
+		 * The number of children. It is -1 if the children are null.
+		 */
+		private final int children;
+
+		/**
+		 * Creates a flattened path entry.
+		 *
+		 * @param id       The id.
+		 * @param children The number of children. It is -1 if the children are
+		 *                 null.
+		 * @since 1.8
+		 */
+		public Entry(String id, int children) {
+			super();
+
+			this.id = id;
+			this.children = children;
+		}
+
+		/**
+		 * Returns the id.
+		 *
+		 * @return The id.
+		 * @since 1.8
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Returns the number of children.
+		 *
+		 * @return The number of children. It is -1 if the children are null.
+		 * @since 1.8
+		 */
+		public int getChildren() {
+			return children;
+		}
+	}
+
+	/**
+	 * Defines iterative JSON serializers for path trees.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Serializer extends StdSerializer<Path> {
+		/**
+		 * The serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Default constructor for an iterative JSON serializer for path trees.
+		 *
+		 * @since 1.8
+		 */
+		public Serializer() {
+			super(Path.class);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see com.fasterxml.jackson.databind.ser.std.StdSerializer#serialize(java.
+		 * lang.Object, com.fasterxml.jackson.core.JsonGenerator,
+		 * com.fasterxml.jackson.databind.SerializerProvider)
+		 */
+		@Override
+		public void serialize(Path path, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			if (getDepth(path) > nestingThreshold)
+				serializeFlattened(path, generator);
+			else
+				serializeNested(path, generator);
+		}
+
+		/**
+		 * Serializes the path tree in the flattened form.
+		 *
+		 * @param path      The root path.
+		 * @param generator The JSON generator.
+		 * @throws IOException Throws if the path tree can not be written.
+		 * @since 1.8
+		 */
+		private void serializeFlattened(Path path, JsonGenerator generator) throws IOException {
+			generator.writeStartArray();
+
+			for (Entry entry : flatten(path))
+				if (entry == null)
+					generator.writeNull();
+				else {
+					generator.writeStartObject();
+					generator.writeStringField(idField, entry.getId());
+					generator.writeNumberField(childrenField, entry.getChildren());
+					generator.writeEndObject();
+				}
+
+			generator.writeEndArray();
+		}
+
+		/**
+		 * Serializes the path tree in the nested form.
+		 *
+		 * @param path      The root path.
+		 * @param generator The JSON generator.
+		 * @throws IOException Throws if the path tree can not be written.
+		 * @since 1.8
+		 */
+		private void serializeNested(Path path, JsonGenerator generator) throws IOException {
+			// The children iterators of the opened paths
+			Deque<Iterator<Path>> iterators = new ArrayDeque<>();
+
+			Path next = path;
+			do {
+				if (next == null)
+					generator.writeNull();
+				else {
+					generator.writeStartObject();
+					generator.writeStringField(idField, next.getId());
+
+					if (next.getChildren() == null) {
+						generator.writeNullField(childrenField);
+						generator.writeEndObject();
+					} else {
+						generator.writeArrayFieldStart(childrenField);
+						iterators.push(next.getChildren().iterator());
+					}
+				}
+
+				next = null;
+				while (!iterators.isEmpty())
+					if (iterators.peek().hasNext()) {
+						next = iterators.peek().next();
+						break;
+					} else {
+						iterators.pop();
+
+						generator.writeEndArray();
+						generator.writeEndObject();
+					}
+			} while (!iterators.isEmpty() || next != null);
+		}
+	}
+
+	/**
+	 * Defines iterative JSON deserializers for path trees. Both the nested and
+	 * the flattened form are read.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Deserializer extends StdDeserializer<Path> {
+		/**
+		 * The serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Default constructor for an iterative JSON deserializer for path trees.
+		 *
+		 * @since 1.8
+		 */
+		public Deserializer() {
+			super(Path.class);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see
+		 * com.fasterxml.jackson.databind.JsonDeserializer#deserialize(com.fasterxml.
+		 * jackson.core.JsonParser, com.fasterxml.jackson.databind.DeserializationContext)
+		 */
+		@Override
+		public Path deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+			if (parser.currentToken() == JsonToken.START_ARRAY)
+				return deserializeFlattened(parser, context);
+			else if (parser.currentToken() == JsonToken.START_OBJECT)
+				return deserializeNested(parser);
+			else
+				return (Path) context.handleUnexpectedToken(Path.class, parser);
+		}
+
+		/**
+		 * Deserializes the path tree in the flattened form.
+		 *
+		 * @param parser  The JSON parser positioned at the start of the array.
+		 * @param context The deserialization context.
+		 * @return The root path.
+		 * @throws IOException Throws if the path tree can not be read.
+		 * @since 1.8
+		 */
+		private Path deserializeFlattened(JsonParser parser, DeserializationContext context) throws IOException {
+			List<Entry> entries = new ArrayList<>();
+
+			JsonToken token;
+			while ((token = parser.nextToken()) != JsonToken.END_ARRAY)
+				if (token == JsonToken.VALUE_NULL)
+					entries.add(null);
+				else if (token == JsonToken.START_OBJECT) {
+					String id = null;
+					int children = -1;
+
+					while (parser.nextToken() == JsonToken.FIELD_NAME) {
+						String field = parser.getCurrentName();
+						token = parser.nextToken();
+
+						if (idField.equals(field))
+							id = token == JsonToken.VALUE_NULL ? null : parser.getText();
+						else if (childrenField.equals(field))
+							children = token == JsonToken.VALUE_NULL ? -1 : parser.getIntValue();
+						else
+							parser.skipChildren();
+					}
+
+					entries.add(new Entry(id, children));
+				} else
+					return (Path) context.handleUnexpectedToken(Path.class, parser);
+
+			try {
+				return unflatten(entries);
+			} catch (IllegalArgumentException e) {
+				throw JsonMappingException.from(parser, e.getMessage(), e);
+			}
+		}
+
+		/**
+		 * Deserializes the path tree in the nested form.
+		 *
+		 * @param parser The JSON parser positioned at the start of the root object.
+		 * @return The root path.
+		 * @throws IOException Throws if the path tree can not be read.
+		 * @since 1.8
+		 */
+		private Path deserializeNested(JsonParser parser) throws IOException {
+			Path root = new Path();
+
+			// The opened paths. A path on top that has a children list whose array
+			// is not closed yet receives the objects and nulls of the array.
+			Deque<Path> paths = new ArrayDeque<>();
+			paths.push(root);
+
+			while (!paths.isEmpty()) {
+				JsonToken token = parser.nextToken();
+				if (token == null)
+					throw new IOException("PathCodec: unexpected end of the path tree.");
+
+				switch (token) {
+				case FIELD_NAME:
+					String field = parser.getCurrentName();
+					token = parser.nextToken();
+
+					if (idField.equals(field))
+						paths.peek().setId(token == JsonToken.VALUE_NULL ? null : parser.getText());
+					else if (childrenField.equals(field) && token == JsonToken.START_ARRAY)
+						paths.peek().setChildren(new ArrayList<>());
+					else if (childrenField.equals(field) && token == JsonToken.VALUE_NULL)
+						paths.peek().setChildren(null);
+					else
+						parser.skipChildren();
+
+					break;
+				case START_OBJECT:
+					Path child = new Path();
+					paths.peek().getChildren().add(child);
+					paths.push(child);
+
+					break;
+				case VALUE_NULL:
+					paths.peek().getChildren().add(null);
+
+					break;
+				case END_OBJECT:
+					paths.pop();
+
+					break;
+				case END_ARRAY:
+					break;
+				default:
+					throw new IOException("PathCodec: unexpected token " + token + " in the path tree.");
+				}
+			}
+
+			return root;
+		}
+	}
+}
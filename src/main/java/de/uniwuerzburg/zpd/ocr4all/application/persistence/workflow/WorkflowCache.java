@@ -0,0 +1,544 @@
+/**
+ * File:     WorkflowCache.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Entity;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.PersistenceManager;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.Type;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.spi.MultipleValueArgument;
+import de.uniwuerzburg.zpd.ocr4all.application.persistence.util.PersistenceTools;
+
+/**
+ * Defines workflow caches. Workflow repositories with the same metadata id and
+ * content are parsed once and the resulting templates are shared by all
+ * readers, for instance, by the projects that contain copies of the same
+ * workflow. If the capacity is exceeded, the least recently used templates are
+ * evicted.
+ *
+ * <p>
+ * The templates hand out their parsed entities as shared read-only views: all
+ * lists of the entities, this means, the paths, their children, the
+ * processors, their argument lists and the argument values, are unmodifiable,
+ * and the entities must not be modified through their setters. Callers that
+ * want to modify an entity request a copy explicitly, which is independent of
+ * the shared template. This way, readers neither parse nor copy the workflow
+ * repositories.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class WorkflowCache {
+	/**
+	 * The default capacity.
+	 */
+	public static final int defaultCapacity = 256;
+
+	/**
+	 * The JSON object mapper to copy the entities.
+	 */
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+	static {
+		objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	}
+
+	/**
+	 * The persistence manager to parse the workflow repositories.
+	 */
+	private final PersistenceManager persistenceManager = new PersistenceManager(Type.workflow_v1,
+			Type.workflow_metadata_v1, Type.workflow_view_v1);
+
+	/**
+	 * The capacity.
+	 */
+	private final int capacity;
+
+	/**
+	 * The templates in access order. The key is the metadata id and content
+	 * digest.
+	 */
+	private final Map<String, Template> templates;
+
+	/**
+	 * The keys of the templates. The key is the content digest.
+	 */
+	private final Map<String, String> keys = new LinkedHashMap<>();
+
+	/**
+	 * Creates a workflow cache with default capacity.
+	 *
+	 * @since 1.8
+	 */
+	public WorkflowCache() {
+		this(defaultCapacity);
+	}
+
+	/**
+	 * Creates a workflow cache.
+	 *
+	 * @param capacity The capacity. If less than 1, the default capacity is used.
+	 * @since 1.8
+	 */
+	public WorkflowCache(int capacity) {
+		this(capacity, null);
+	}
+
+	/**
+	 * Creates a workflow cache.
+	 *
+	 * @param capacity      The capacity. If less than 1, the default capacity is
+	 *                      used.
+	 * @param configuration The persistence manager whose argument store and
+	 *                      string interner are used to parse the workflow
+	 *                      repositories. If null, the argument references are
+	 *                      not resolved and the values are not canonicalized.
+	 * @since 1.8
+	 */
+	public WorkflowCache(int capacity, PersistenceManager configuration) {
+		super();
+
+		this.capacity = capacity < 1 ? defaultCapacity : capacity;
+
+		if (configuration != null) {
+			persistenceManager.setArgumentStore(configuration.getArgumentStore());
+			persistenceManager.setInterner(configuration.getInterner());
+		}
+
+		templates = new LinkedHashMap<>(16, 0.75f, true) {
+			/**
+			 * The serial version UID.
+			 */
+			private static final long serialVersionUID = 1L;
+
+			/*
+			 * (non-Javadoc)
+			 *
+			 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+			 */
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+				if (size() > WorkflowCache.this.capacity) {
+					keys.remove(eldest.getValue().getDigest());
+
+					return true;
+				} else
+					return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the capacity.
+	 *
+	 * @return The capacity.
+	 * @since 1.8
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the key of the template.
+	 *
+	 * @param id     The metadata id. Null if the repository has no metadata.
+	 * @param digest The content digest.
+	 * @return The key.
+	 * @since 1.8
+	 */
+	private static String getKey(String id, String digest) {
+		return (id == null ? "" : id) + "\t" + digest;
+	}
+
+	/**
+	 * Returns the shared template of the workflow repository. The repository is
+	 * read and only parsed if no template with the same content is cached.
+	 *
+	 * @param repository The workflow repository.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The shared template. Null if the repository does not exist.
+	 * @throws IOException Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public Template get(java.nio.file.Path repository, PersistenceManager.Message message) throws IOException {
+		if (!Files.exists(repository))
+			return null;
+
+		String content;
+		try {
+			content = Files.readString(repository);
+		} catch (IOException e) {
+			throw new IOException(
+					"WorkflowCache: could not read repository '" + repository + "' - " + e.getMessage() + ".");
+		}
+
+		String digest = PersistenceTools.getDigest(content);
+
+		synchronized (this) {
+			String key = keys.get(digest);
+			if (key != null) {
+				Template template = templates.get(key);
+				if (template != null)
+					return template;
+			}
+		}
+
+		Template template = parse(repository, content, digest, message);
+
+		synchronized (this) {
+			Template cached = templates.get(template.getKey());
+			if (cached != null)
+				return cached;
+
+			templates.put(template.getKey(), template);
+			keys.put(digest, template.getKey());
+
+			return template;
+		}
+	}
+
+	/**
+	 * Returns the cached template.
+	 *
+	 * @param id     The metadata id. Null if the repository has no metadata.
+	 * @param digest The content digest.
+	 * @return The cached template. Null if not cached.
+	 * @since 1.8
+	 */
+	public synchronized Template get(String id, String digest) {
+		return templates.get(getKey(id, digest));
+	}
+
+	/**
+	 * Returns a modifiable copy of the workflow of the repository, this means,
+	 * the copy does not share any object with the cached template. This is a
+	 * shortcut for {@link Template#copyWorkflow()}.
+	 *
+	 * @param repository The workflow repository.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The modifiable workflow. Null if the repository does not exist or
+	 *         does not contain a workflow.
+	 * @throws IOException Throws if the repository can not be read.
+	 * @since 1.8
+	 */
+	public Workflow getCopy(java.nio.file.Path repository, PersistenceManager.Message message) throws IOException {
+		Template template = get(repository, message);
+
+		return template == null ? null : template.copyWorkflow();
+	}
+
+	/**
+	 * Parses the workflow repository content.
+	 *
+	 * @param repository The workflow repository. It is only used for warning
+	 *                   messages.
+	 * @param content    The content.
+	 * @param digest     The content digest.
+	 * @param message    The functional interfaces to account for warning messages.
+	 *                   If null, ignore warning messages.
+	 * @return The template.
+	 * @throws IOException Throws if the content can not be read.
+	 * @since 1.8
+	 */
+	private Template parse(java.nio.file.Path repository, String content, String digest,
+			PersistenceManager.Message message) throws IOException {
+		Template template = new Template(digest);
+
+		persistenceManager.process(repository, new BufferedReader(new StringReader(content)), message,
+				(number, type, entity) -> {
+					if (entity instanceof Metadata && template.metadata == null)
+						template.metadata = (Metadata) entity;
+					else if (entity instanceof Workflow && template.workflow == null)
+						template.workflow = freeze((Workflow) entity);
+					else if (entity instanceof View && template.view == null)
+						template.view = (View) entity;
+
+					return true;
+				});
+
+		return template;
+	}
+
+	/**
+	 * Freezes the lists of the workflow, this means, the paths, their children,
+	 * the processors, their argument lists and the argument values become
+	 * unmodifiable.
+	 *
+	 * @param workflow The workflow.
+	 * @return The frozen workflow.
+	 * @since 1.8
+	 */
+	private static Workflow freeze(Workflow workflow) {
+		List<Path> paths = new ArrayList<>();
+		if (workflow.getPaths() != null)
+			paths.addAll(workflow.getPaths());
+
+		for (int i = 0; i < paths.size(); i++) {
+			Path path = paths.get(i);
+			if (path != null && path.getChildren() != null) {
+				paths.addAll(path.getChildren());
+				path.setChildren(unmodifiable(path.getChildren()));
+			}
+		}
+
+		if (workflow.getProcessors() != null)
+			for (Processor processor : workflow.getProcessors())
+				if (processor != null) {
+					processor.setBooleans(unmodifiable(processor.getBooleans()));
+					processor.setDecimals(unmodifiable(processor.getDecimals()));
+					processor.setIntegers(unmodifiable(processor.getIntegers()));
+					processor.setStrings(unmodifiable(processor.getStrings()));
+					processor.setImages(freeze(processor.getImages()));
+					processor.setRecognitionModels(freeze(processor.getRecognitionModels()));
+					processor.setSelects(freeze(processor.getSelects()));
+				}
+
+		workflow.setPaths(unmodifiable(workflow.getPaths()));
+		workflow.setProcessors(unmodifiable(workflow.getProcessors()));
+
+		return workflow;
+	}
+
+	/**
+	 * Freezes the multiple value arguments, this means, the values of the
+	 * arguments and the argument list become unmodifiable.
+	 *
+	 * @param <A>       The argument type.
+	 * @param arguments The arguments.
+	 * @return The unmodifiable view of the arguments. Null if the arguments are
+	 *         null.
+	 * @since 1.8
+	 */
+	private static <A extends MultipleValueArgument<String>> List<A> freeze(List<A> arguments) {
+		if (arguments != null)
+			for (A argument : arguments)
+				if (argument != null)
+					argument.setValues(unmodifiable(argument.getValues()));
+
+		return unmodifiable(arguments);
+	}
+
+	/**
+	 * Returns an unmodifiable view of the list.
+	 *
+	 * @param <T>  The element type.
+	 * @param list The list.
+	 * @return The unmodifiable view of the list. Null if the list is null.
+	 * @since 1.8
+	 */
+	private static <T> List<T> unmodifiable(List<T> list) {
+		return list == null ? null : Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Returns a modifiable deep copy of the workflow.
+	 *
+	 * @param workflow The workflow.
+	 * @return The modifiable copy. Null if the workflow is null.
+	 * @throws IOException Throws if the workflow can not be copied.
+	 * @since 1.8
+	 */
+	public static Workflow copy(Workflow workflow) throws IOException {
+		return copy(workflow, Workflow.class);
+	}
+
+	/**
+	 * Returns a modifiable deep copy of the entity.
+	 *
+	 * @param <T>    The entity type.
+	 * @param entity The entity.
+	 * @param clazz  The entity class.
+	 * @return The modifiable copy. Null if the entity is null.
+	 * @throws IOException Throws if the entity can not be copied.
+	 * @since 1.8
+	 */
+	private static <T extends Entity> T copy(T entity, Class<T> clazz) throws IOException {
+		if (entity == null)
+			return null;
+
+		try {
+			return objectMapper.readValue(objectMapper.writeValueAsString(entity), clazz);
+		} catch (JsonProcessingException e) {
+			throw new IOException(
+					"WorkflowCache: troubles processing (parsing, generating) JSON - " + e.getMessage() + ".");
+		}
+	}
+
+	/**
+	 * Returns the number of cached templates.
+	 *
+	 * @return The number of cached templates.
+	 * @since 1.8
+	 */
+	public synchronized int size() {
+		return templates.size();
+	}
+
+	/**
+	 * Removes all cached templates.
+	 *
+	 * @since 1.8
+	 */
+	public synchronized void clear() {
+		templates.clear();
+		keys.clear();
+	}
+
+	/**
+	 * Defines shared workflow templates. The templates are read-only, this means,
+	 * their entities are handed out as shared read-only views and must be copied
+	 * explicitly to be modified.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Template {
+		/**
+		 * The content digest.
+		 */
+		private final String digest;
+
+		/**
+		 * The metadata. Null if not available.
+		 */
+		private Metadata metadata = null;
+
+		/**
+		 * The workflow. Null if not available.
+		 */
+		private Workflow workflow = null;
+
+		/**
+		 * The view. Null if not available.
+		 */
+		private View view = null;
+
+		/**
+		 * Creates a shared workflow template.
+		 *
+		 * @param digest The content digest.
+		 * @since 1.8
+		 */
+		private Template(String digest) {
+			super();
+
+			this.digest = digest;
+		}
+
+		/**
+		 * Returns the cache key, this means, the metadata id and content digest.
+		 *
+		 * @return The cache key.
+		 * @since 1.8
+		 */
+		private String getKey() {
+			return WorkflowCache.getKey(getId(), digest);
+		}
+
+		/**
+		 * Returns the metadata id.
+		 *
+		 * @return The metadata id. Null if no metadata is available.
+		 * @since 1.8
+		 */
+		public String getId() {
+			return metadata == null ? null : metadata.getId();
+		}
+
+		/**
+		 * Returns the content digest.
+		 *
+		 * @return The content digest.
+		 * @since 1.8
+		 */
+		public String getDigest() {
+			return digest;
+		}
+
+		/**
+		 * Returns the shared metadata. It must not be modified.
+		 *
+		 * @return The shared metadata. Null if not available.
+		 * @since 1.8
+		 */
+		public Metadata getMetadata() {
+			return metadata;
+		}
+
+		/**
+		 * Returns the shared workflow. Its lists are unmodifiable and it must not
+		 * be modified through its setters.
+		 *
+		 * @return The shared workflow. Null if not available.
+		 * @since 1.8
+		 */
+		public Workflow getWorkflow() {
+			return workflow;
+		}
+
+		/**
+		 * Returns the shared view. It must not be modified.
+		 *
+		 * @return The shared view. Null if not available.
+		 * @since 1.8
+		 */
+		public View getView() {
+			return view;
+		}
+
+		/**
+		 * Returns a modifiable copy of the metadata.
+		 *
+		 * @return The copy of the metadata. Null if not available.
+		 * @throws IOException Throws if the metadata can not be copied.
+		 * @since 1.8
+		 */
+		public Metadata copyMetadata() throws IOException {
+			return copy(metadata, Metadata.class);
+		}
+
+		/**
+		 * Returns a modifiable copy of the workflow.
+		 *
+		 * @return The copy of the workflow. Null if not available.
+		 * @throws IOException Throws if the workflow can not be copied.
+		 * @since 1.8
+		 */
+		public Workflow copyWorkflow() throws IOException {
+			return copy(workflow, Workflow.class);
+		}
+
+		/**
+		 * Returns a modifiable copy of the view.
+		 *
+		 * @return The copy of the view. Null if not available.
+		 * @throws IOException Throws if the view can not be copied.
+		 * @since 1.8
+		 */
+		public View copyView() throws IOException {
+			return copy(view, View.class);
+		}
+	}
+}
@@ -0,0 +1,523 @@
+/**
+ * File:     WorkflowGraph.java
+ * Package:  de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow
+ *
+ * Author:   Herbert Baier (herbert.baier@uni-wuerzburg.de)
+ * Date:     19.10.2026
+ */
+package de.uniwuerzburg.zpd.ocr4all.application.persistence.workflow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Defines compiled workflow graphs. The graph is built once from the paths and
+ * processors of a workflow, such that the nodes, processors, children and
+ * parents are looked up by path id in constant time. The paths are walked
+ * iteratively, thus, deep workflows do not exhaust the stack.
+ *
+ * <p>
+ * The nodes are identified by their path ids. If a path id occurs several
+ * times, the occurrences are merged into a single node with several parents.
+ * The graph is valid if every path has an id, the ids of the paths and
+ * processors match one to one and the graph is acyclic.
+ * </p>
+ *
+ * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+ * @version 1.0
+ * @since 1.8
+ */
+public class WorkflowGraph {
+	/**
+	 * The nodes in discovery order. The key is the path id.
+	 */
+	private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+	/**
+	 * The processors. The key is the path id.
+	 */
+	private final Map<String, Processor> processors = new HashMap<>();
+
+	/**
+	 * The root nodes.
+	 */
+	private final List<Node> roots = new ArrayList<>();
+
+	/**
+	 * The leaf nodes.
+	 */
+	private final List<Node> leaves = new ArrayList<>();
+
+	/**
+	 * The nodes in topological order, this means, parents precede their
+	 * children. The nodes on cycles are not contained.
+	 */
+	private final List<Node> order = new ArrayList<>();
+
+	/**
+	 * The ids of the nodes on cycles or reachable from cycles.
+	 */
+	private final Set<String> cyclic = new LinkedHashSet<>();
+
+	/**
+	 * The path ids of the processors that do not refer to a path.
+	 */
+	private final Set<String> danglingProcessors = new LinkedHashSet<>();
+
+	/**
+	 * The ids of the paths without processor.
+	 */
+	private final Set<String> unboundPaths = new LinkedHashSet<>();
+
+	/**
+	 * The path ids that are referenced by several processors.
+	 */
+	private final Set<String> duplicateProcessors = new LinkedHashSet<>();
+
+	/**
+	 * The number of paths without id.
+	 */
+	private int anonymousPaths = 0;
+
+	/**
+	 * The maximal depth. It is -1 if the graph is empty.
+	 */
+	private int depth = -1;
+
+	/**
+	 * Creates a compiled workflow graph.
+	 *
+	 * @param workflow The workflow.
+	 * @since 1.8
+	 */
+	public WorkflowGraph(Workflow workflow) {
+		super();
+
+		if (workflow != null) {
+			build(workflow.getPaths());
+			bind(workflow.getProcessors());
+			sort();
+		}
+	}
+
+	/**
+	 * Builds the nodes and edges from the paths.
+	 *
+	 * @param paths The root paths.
+	 * @since 1.8
+	 */
+	private void build(List<Path> paths) {
+		if (paths == null)
+			return;
+
+		Map<Path, Boolean> visited = new IdentityHashMap<>();
+		Deque<Path> stack = new ArrayDeque<>();
+		Deque<Node> parents = new ArrayDeque<>();
+
+		for (int i = paths.size() - 1; i >= 0; i--)
+			if (paths.get(i) != null) {
+				stack.push(paths.get(i));
+				parents.push(Node.none);
+			}
+
+		while (!stack.isEmpty()) {
+			Path path = stack.pop();
+			Node parent = parents.pop();
+
+			if (path.getId() == null) {
+				anonymousPaths++;
+
+				continue;
+			}
+
+			Node node = nodes.computeIfAbsent(path.getId(), Node::new);
+			if (parent != Node.none) {
+				if (!parent.children.contains(node))
+					parent.children.add(node);
+				if (!node.parents.contains(parent))
+					node.parents.add(parent);
+			}
+
+			// A path object that recurs on its own branch is a cycle, which is
+			// detected by the topological sort
+			if (visited.put(path, Boolean.TRUE) != null)
+				continue;
+
+			List<Path> children = path.getChildren();
+			if (children != null)
+				for (int i = children.size() - 1; i >= 0; i--)
+					if (children.get(i) != null) {
+						stack.push(children.get(i));
+						parents.push(node);
+					}
+		}
+	}
+
+	/**
+	 * Binds the processors to the nodes.
+	 *
+	 * @param processors The processors.
+	 * @since 1.8
+	 */
+	private void bind(List<Processor> processors) {
+		if (processors != null)
+			for (Processor processor : processors)
+				if (processor != null) {
+					String id = processor.getIdPath();
+
+					if (!nodes.containsKey(id))
+						danglingProcessors.add(id);
+					else if (this.processors.putIfAbsent(id, processor) != null)
+						duplicateProcessors.add(id);
+				}
+
+		for (String id : nodes.keySet())
+			if (!this.processors.containsKey(id))
+				unboundPaths.add(id);
+	}
+
+	/**
+	 * Sorts the nodes topologically and computes their depths, this means, the
+	 * length of the longest path from a root.
+	 *
+	 * @since 1.8
+	 */
+	private void sort() {
+		Map<Node, Integer> degrees = new HashMap<>();
+		Deque<Node> queue = new ArrayDeque<>();
+
+		for (Node node : nodes.values()) {
+			degrees.put(node, node.parents.size());
+
+			if (node.parents.isEmpty()) {
+				roots.add(node);
+				queue.add(node);
+			}
+
+			if (node.children.isEmpty())
+				leaves.add(node);
+		}
+
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			order.add(node);
+			depth = Math.max(depth, node.depth);
+
+			for (Node child : node.children) {
+				child.depth = Math.max(child.depth, node.depth + 1);
+
+				if (degrees.merge(child, -1, Integer::sum) == 0)
+					queue.add(child);
+			}
+		}
+
+		if (order.size() < nodes.size())
+			for (Node node : nodes.values())
+				if (degrees.get(node) > 0) {
+					node.depth = -1;
+					cyclic.add(node.getId());
+				}
+	}
+
+	/**
+	 * Returns the node.
+	 *
+	 * @param id The path id.
+	 * @return The node. Null if not available.
+	 * @since 1.8
+	 */
+	public Node getNode(String id) {
+		return nodes.get(id);
+	}
+
+	/**
+	 * Returns the processor.
+	 *
+	 * @param id The path id.
+	 * @return The processor. Null if not available.
+	 * @since 1.8
+	 */
+	public Processor getProcessor(String id) {
+		return processors.get(id);
+	}
+
+	/**
+	 * Returns the children of the node.
+	 *
+	 * @param id The path id.
+	 * @return The children. Empty if the node is not available.
+	 * @since 1.8
+	 */
+	public List<Node> getChildren(String id) {
+		Node node = nodes.get(id);
+
+		return node == null ? Collections.emptyList() : node.getChildren();
+	}
+
+	/**
+	 * Returns the depth of the node, this means, the length of the longest path
+	 * from a root.
+	 *
+	 * @param id The path id.
+	 * @return The depth. It is -1 if the node is not available or lies on a cycle.
+	 * @since 1.8
+	 */
+	public int getDepth(String id) {
+		Node node = nodes.get(id);
+
+		return node == null ? -1 : node.getDepth();
+	}
+
+	/**
+	 * Returns the maximal depth.
+	 *
+	 * @return The maximal depth. It is -1 if the graph is empty.
+	 * @since 1.8
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the nodes in discovery order.
+	 *
+	 * @return The nodes.
+	 * @since 1.8
+	 */
+	public List<Node> getNodes() {
+		return Collections.unmodifiableList(new ArrayList<>(nodes.values()));
+	}
+
+	/**
+	 * Returns the root nodes.
+	 *
+	 * @return The root nodes.
+	 * @since 1.8
+	 */
+	public List<Node> getRoots() {
+		return Collections.unmodifiableList(roots);
+	}
+
+	/**
+	 * Returns the leaf nodes.
+	 *
+	 * @return The leaf nodes.
+	 * @since 1.8
+	 */
+	public List<Node> getLeaves() {
+		return Collections.unmodifiableList(leaves);
+	}
+
+	/**
+	 * Returns the nodes in topological order, this means, parents precede their
+	 * children.
+	 *
+	 * @return The nodes in topological order. The nodes on cycles are not
+	 *         contained.
+	 * @since 1.8
+	 */
+	public List<Node> getOrder() {
+		return Collections.unmodifiableList(order);
+	}
+
+	/**
+	 * Returns the ids of the nodes on cycles or reachable from cycles.
+	 *
+	 * @return The ids of the cyclic nodes.
+	 * @since 1.8
+	 */
+	public Set<String> getCyclic() {
+		return Collections.unmodifiableSet(cyclic);
+	}
+
+	/**
+	 * Returns the path ids of the processors that do not refer to a path.
+	 *
+	 * @return The dangling processor path ids.
+	 * @since 1.8
+	 */
+	public Set<String> getDanglingProcessors() {
+		return Collections.unmodifiableSet(danglingProcessors);
+	}
+
+	/**
+	 * Returns the ids of the paths without processor.
+	 *
+	 * @return The ids of the unbound paths.
+	 * @since 1.8
+	 */
+	public Set<String> getUnboundPaths() {
+		return Collections.unmodifiableSet(unboundPaths);
+	}
+
+	/**
+	 * Returns the path ids that are referenced by several processors.
+	 *
+	 * @return The duplicate processor path ids.
+	 * @since 1.8
+	 */
+	public Set<String> getDuplicateProcessors() {
+		return Collections.unmodifiableSet(duplicateProcessors);
+	}
+
+	/**
+	 * Returns the number of paths without id.
+	 *
+	 * @return The number of anonymous paths.
+	 * @since 1.8
+	 */
+	public int getAnonymousPaths() {
+		return anonymousPaths;
+	}
+
+	/**
+	 * Returns true if the graph is valid, this means, every path has an id, the
+	 * ids of the paths and processors match one to one and the graph is acyclic.
+	 *
+	 * @return True if the graph is valid.
+	 * @since 1.8
+	 */
+	public boolean isValid() {
+		return anonymousPaths == 0 && cyclic.isEmpty() && danglingProcessors.isEmpty() && unboundPaths.isEmpty()
+				&& duplicateProcessors.isEmpty();
+	}
+
+	/**
+	 * Returns the validation problems.
+	 *
+	 * @return The validation problems. Empty if the graph is valid.
+	 * @since 1.8
+	 */
+	public List<String> getProblems() {
+		List<String> problems = new ArrayList<>();
+
+		if (anonymousPaths > 0)
+			problems.add(anonymousPaths + " paths without id.");
+		if (!cyclic.isEmpty())
+			problems.add("cyclic paths " + cyclic + ".");
+		if (!danglingProcessors.isEmpty())
+			problems.add("processors referring to unknown paths " + danglingProcessors + ".");
+		if (!unboundPaths.isEmpty())
+			problems.add("paths without processor " + unboundPaths + ".");
+		if (!duplicateProcessors.isEmpty())
+			problems.add("paths with several processors " + duplicateProcessors + ".");
+
+		return problems;
+	}
+
+	/**
+	 * Defines workflow graph nodes.
+	 *
+	 * @author <a href="mailto:herbert.baier@uni-wuerzburg.de">Herbert Baier</a>
+	 * @version 1.0
+	 * @since 1.8
+	 */
+	public static class Node {
+		/**
+		 * The placeholder for the parent of root paths.
+		 */
+		private static final Node none = new Node(null);
+
+		/**
+		 * The path id.
+		 */
+		private final String id;
+
+		/**
+		 * The parents.
+		 */
+		private final List<Node> parents = new ArrayList<>();
+
+		/**
+		 * The children.
+		 */
+		private final List<Node> children = new ArrayList<>();
+
+		/**
+		 * The depth. It is -1 if the node lies on a cycle.
+		 */
+		private int depth = 0;
+
+		/**
+		 * Creates a workflow graph node.
+		 *
+		 * @param id The path id.
+		 * @since 1.8
+		 */
+		private Node(String id) {
+			super();
+
+			this.id = id;
+		}
+
+		/**
+		 * Returns the path id.
+		 *
+		 * @return The path id.
+		 * @since 1.8
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * Returns the parents.
+		 *
+		 * @return The parents.
+		 * @since 1.8
+		 */
+		public List<Node> getParents() {
+			return Collections.unmodifiableList(parents);
+		}
+
+		/**
+		 * Returns the children.
+		 *
+		 * @return The children.
+		 * @since 1.8
+		 */
+		public List<Node> getChildren() {
+			return Collections.unmodifiableList(children);
+		}
+
+		/**
+		 * Returns the depth, this means, the length of the longest path from a
+		 * root.
+		 *
+		 * @return The depth. It is -1 if the node lies on a cycle.
+		 * @since 1.8
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Returns true if the node is a root.
+		 *
+		 * @return True if the node is a root.
+		 * @since 1.8
+		 */
+		public boolean isRoot() {
+			return parents.isEmpty();
+		}
+
+		/**
+		 * Returns true if the node is a leaf.
+		 *
+		 * @return True if the node is a leaf.
+		 * @since 1.8
+		 */
+		public boolean isLeaf() {
+			return children.isEmpty();
+		}
+	}
+}